@@ -0,0 +1,78 @@
+package heartdisease.bench;
+
+import heartdisease.data.DataLoader;
+import heartdisease.data.Dataset;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CSV loading and k-fold splitting on a synthetic file written at setup
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataLoaderBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    @Param({"20"})
+    public int features;
+
+    @Param({"5"})
+    public int folds;
+
+    private Dataset dataset;
+    private Path csvFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        dataset = SyntheticData.generate(rows, features, 42L);
+        csvFile = Files.createTempFile("bench-", ".csv");
+        SyntheticData.writeCsv(dataset, csvFile);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(csvFile);
+    }
+
+    @Benchmark
+    public Dataset loadFromCSV() throws IOException {
+        return DataLoader.loadFromCSV(csvFile.toString());
+    }
+
+    @Benchmark
+    public List<DataLoader.DataSplit> kFoldSplit() {
+        return DataLoader.kFoldSplit(dataset, folds, 42L);
+    }
+
+    @Benchmark
+    public List<DataLoader.IndexSplit> kFoldIndices() {
+        return DataLoader.kFoldIndices(DataLoader.kFoldAssignments(rows, folds, 42L), folds);
+    }
+
+    @Benchmark
+    public int[] stratifiedKFoldAssignments() {
+        return DataLoader.stratifiedKFoldAssignments(dataset.getLabels(), folds, 42L);
+    }
+}
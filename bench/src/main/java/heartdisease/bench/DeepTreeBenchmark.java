@@ -0,0 +1,58 @@
+package heartdisease.bench;
+
+import heartdisease.data.Dataset;
+import heartdisease.tree.DecisionTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fitting one unlimited-depth HISTOGRAM tree on a wide dataset, per build order. Levels
+ * grow to thousands of nodes, and the fork's fixed heap only leaves room for the data
+ * and a bounded set of node histograms (see LevelWiseTreeMatrix), so a build order that
+ * keeps a histogram per frontier node fails here with OutOfMemoryError.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx256m")
+public class DeepTreeBenchmark {
+
+    @Param({"100000"})
+    public int rows;
+
+    @Param({"200"})
+    public int features;
+
+    @Param({"DEPTH_FIRST", "LEVEL_WISE"})
+    public DecisionTree.BuildOrder buildOrder;
+
+    private Dataset dataset;
+
+    @Setup
+    public void setUp() {
+        dataset = SyntheticData.generate(rows, features, 42L);
+        dataset.getBins();
+    }
+
+    @Benchmark
+    public DecisionTree fit() {
+        DecisionTree tree = new DecisionTree(Integer.MAX_VALUE, 2, (int) Math.sqrt(features), new Random(42L),
+            DecisionTree.SplitEngine.HISTOGRAM, buildOrder);
+        tree.fit(dataset);
+        return tree;
+    }
+}
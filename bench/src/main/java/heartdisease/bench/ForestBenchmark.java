@@ -0,0 +1,56 @@
+package heartdisease.bench;
+
+import heartdisease.data.Dataset;
+import heartdisease.forest.RandomForest;
+import heartdisease.tree.DecisionTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fitting a whole forest, including bootstrap sampling and parallel tree training
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ForestBenchmark {
+
+    @Param({"10000"})
+    public int rows;
+
+    @Param({"20"})
+    public int features;
+
+    @Param({"10", "50"})
+    public int trees;
+
+    @Param({"PRESORTED", "HISTOGRAM"})
+    public DecisionTree.SplitEngine engine;
+
+    private Dataset dataset;
+
+    @Setup
+    public void setUp() {
+        dataset = SyntheticData.generate(rows, features, 42L);
+    }
+
+    @Benchmark
+    public RandomForest fit() {
+        RandomForest forest = new RandomForest(trees, 15, 5, (int) Math.sqrt(features), 42L, engine);
+        forest.fit(dataset);
+        return forest;
+    }
+}
@@ -0,0 +1,90 @@
+package heartdisease.bench;
+
+import heartdisease.data.Dataset;
+import heartdisease.forest.RandomForest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scoring with a trained forest: one sample at a time and whole batches
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PredictBenchmark {
+
+    @Param({"20"})
+    public int features;
+
+    @Param({"50", "200"})
+    public int trees;
+
+    @Param({"256", "10000"})
+    public int batchSize;
+
+    private RandomForest forest;
+    private double[][] batch;
+    private float[][] floatBatch;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        forest = new RandomForest(trees, 15, 5, (int) Math.sqrt(features), 42L);
+        forest.fit(SyntheticData.generate(10000, features, 42L));
+        Dataset scoring = SyntheticData.generate(batchSize, features, 7L);
+        batch = scoring.getFeatures();
+        floatBatch = scoring.getFloatFeatures();
+    }
+
+    private double[] nextSample() {
+        double[] sample = batch[next];
+        next = next + 1 == batch.length ? 0 : next + 1;
+        return sample;
+    }
+
+    @Benchmark
+    public int predictSingle() {
+        return forest.predict(nextSample());
+    }
+
+    @Benchmark
+    public double predictProbability() {
+        return forest.predictProbability(nextSample());
+    }
+
+    @Benchmark
+    public int[] predictBatch() {
+        return forest.predict(batch);
+    }
+
+    @Benchmark
+    public RandomForest.BatchPrediction predictBatchFloat32() {
+        return forest.predictBatch(floatBatch);
+    }
+
+    /**
+     * Sample-major baseline for predictBatch: the whole batch through predict(double[])
+     */
+    @Benchmark
+    public int[] predictEachSample() {
+        int[] predictions = new int[batch.length];
+        for (int i = 0; i < batch.length; i++) {
+            predictions[i] = forest.predict(batch[i]);
+        }
+        return predictions;
+    }
+}
@@ -0,0 +1,78 @@
+package heartdisease.bench;
+
+import heartdisease.data.Dataset;
+import heartdisease.tree.DecisionTree;
+import heartdisease.tree.HistogramTreeMatrix;
+import heartdisease.tree.PresortedTreeMatrix;
+import heartdisease.tree.SplitFinder;
+import heartdisease.tree.TreeMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Split search at the root node: computeIGR over every attribute, per split engine.
+ * Each invocation releases the root afterwards, so HISTOGRAM rebuilds the root histogram
+ * every time, just as SORTED re-sorts; without that it would only measure bin scans.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SplitBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    @Param({"20"})
+    public int features;
+
+    @Param({"SORTED", "PRESORTED", "HISTOGRAM"})
+    public DecisionTree.SplitEngine engine;
+
+    private SplitFinder finder;
+    private double parentEntropy;
+
+    @Setup
+    public void setUp() {
+        Dataset dataset = SyntheticData.generate(rows, features, 42L);
+        int[] weights = new int[rows];
+        Arrays.fill(weights, 1);
+        switch (engine) {
+            case SORTED:
+                finder = new TreeMatrix(dataset, weights);
+                break;
+            case HISTOGRAM:
+                finder = new HistogramTreeMatrix(dataset, weights);
+                break;
+            default:
+                finder = new PresortedTreeMatrix(dataset, weights);
+                break;
+        }
+        parentEntropy = finder.getEntropy(0, finder.getNumSamples());
+    }
+
+    @Benchmark
+    public void computeIGR(Blackhole blackhole) {
+        int end = finder.getNumSamples();
+        for (int attribute = 0; attribute < features; attribute++) {
+            blackhole.consume(finder.computeIGR(attribute, 0, end, parentEntropy));
+        }
+        // Drop per-node caches (HistogramTreeMatrix's histogram) for the next invocation
+        finder.release(0, end);
+    }
+}
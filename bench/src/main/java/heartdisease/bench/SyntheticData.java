@@ -0,0 +1,69 @@
+package heartdisease.bench;
+
+import heartdisease.data.Dataset;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Reproducible synthetic binary-classification data shaped like the heart disease
+ * features: a mix of continuous measurements and small categorical codes, with a
+ * noisy label that depends on a few of them.
+ */
+public final class SyntheticData {
+
+    private SyntheticData() {
+    }
+
+    public static Dataset generate(int rows, int features, long seed) {
+        Random random = new Random(seed);
+        double[][] columns = new double[features][rows];
+        int[] labels = new int[rows];
+        String[] names = new String[features];
+        for (int attribute = 0; attribute < features; attribute++) {
+            names[attribute] = "feature_" + attribute;
+        }
+
+        for (int i = 0; i < rows; i++) {
+            double score = 0.0;
+            for (int attribute = 0; attribute < features; attribute++) {
+                double value;
+                if (attribute % 3 == 1) {
+                    // Categorical code, like gender or exercise habits
+                    value = random.nextInt(4);
+                } else {
+                    // Continuous measurement, like blood pressure or BMI
+                    value = 50.0 + 15.0 * random.nextGaussian();
+                }
+                columns[attribute][i] = value;
+                if (attribute < 4) {
+                    score += attribute % 3 == 1 ? value - 1.5 : (value - 50.0) / 15.0;
+                }
+            }
+            labels[i] = score + random.nextGaussian() > 0 ? 1 : 0;
+        }
+        return Dataset.fromColumns(columns, labels, names);
+    }
+
+    /**
+     * Write a dataset in the CSV layout read by DataLoader.loadFromCSV
+     */
+    public static void writeCsv(Dataset dataset, Path path) throws IOException {
+        String[] names = dataset.getFeatureNames();
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            writer.write(String.join(",", names));
+            writer.write(",target\n");
+            for (int i = 0; i < dataset.getNumSamples(); i++) {
+                for (int attribute = 0; attribute < names.length; attribute++) {
+                    writer.write(Double.toString(dataset.getValue(i, attribute)));
+                    writer.write(',');
+                }
+                writer.write(Integer.toString(dataset.getLabel(i)));
+                writer.write('\n');
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package heartdisease.bench;
+
+import heartdisease.data.Dataset;
+import heartdisease.tree.DecisionTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fitting a single decision tree on the whole dataset, per split engine and build order
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TreeBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    @Param({"20"})
+    public int features;
+
+    @Param({"SORTED", "PRESORTED", "HISTOGRAM"})
+    public DecisionTree.SplitEngine engine;
+
+    @Param({"DEPTH_FIRST", "PARALLEL", "LEVEL_WISE"})
+    public DecisionTree.BuildOrder buildOrder;
+
+    private Dataset dataset;
+
+    @Setup
+    public void setUp() {
+        dataset = SyntheticData.generate(rows, features, 42L);
+        // Build the shared sorted orders and bins outside the measurement
+        dataset.getSortedOrders();
+        dataset.getBins();
+    }
+
+    @Benchmark
+    public DecisionTree fit() {
+        DecisionTree tree = new DecisionTree(15, 5, (int) Math.sqrt(features), new Random(42L), engine, buildOrder);
+        tree.fit(dataset);
+        return tree;
+    }
+}
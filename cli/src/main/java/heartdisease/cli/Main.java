@@ -1,3 +1,11 @@
+package heartdisease.cli;
+
+import heartdisease.data.DataLoader;
+import heartdisease.data.Dataset;
+import heartdisease.forest.HyperparameterTuner;
+import heartdisease.forest.Metrics;
+import heartdisease.forest.RandomForest;
+
 import java.io.IOException;
 import java.nio.file.Path;
 
@@ -24,7 +32,7 @@ public class Main {
             logger.info("Saving run artifacts to: " + runOutputs.getRunDir().toAbsolutePath());
 
             logger.info("Loading dataset...");
-            Dataset dataset = DataLoader.loadFromCSV(dataPath);
+            Dataset dataset = DataLoader.loadWithBinaryCache(dataPath);
 
             logger.info("Dataset loaded:");
             logger.info("  Samples: " + dataset.getNumSamples());
@@ -59,7 +67,8 @@ public class Main {
             logger.info("  maxFeatures: " + java.util.Arrays.toString(maxFeaturesValues));
             logger.info("  Total combinations: " + grid.getTotalCombinations());
 
-            HyperparameterTuner tuner = new HyperparameterTuner(5, 42L, HyperparameterTuner.Metric.ACCURACY, true);
+            int tuningThreads = Runtime.getRuntime().availableProcessors();
+            HyperparameterTuner tuner = new HyperparameterTuner(5, 42L, HyperparameterTuner.Metric.ACCURACY, true, tuningThreads);
             HyperparameterTuner.TuningResult bestParams = tuner.tune(trainSet, grid);
             logger.info("\n" + bestParams);
 
@@ -89,15 +98,13 @@ public class Main {
             logger.info("  Training completed in " + trainingDurationMs + "ms");
 
             logger.info("\n=== Comprehensive Model Evaluation on Test Set ===");
-            int[] testPredictions = rf.predict(testSet.getFeatures());
+            RandomForest.BatchPrediction testScores = rf.predictBatch(testSet.getFeatures());
+            int[] testPredictions = testScores.getPredictions();
+            double[] testProbabilities = testScores.getProbabilities();
             int[] testActual = new int[testSet.getNumSamples()];
             for (int i = 0; i < testSet.getNumSamples(); i++) {
                 testActual[i] = testSet.getLabel(i);
             }
-            double[] testProbabilities = new double[testSet.getNumSamples()];
-            for (int i = 0; i < testSet.getNumSamples(); i++) {
-                testProbabilities[i] = rf.predictProbability(testSet.getSample(i));
-            }
 
             double testAccuracy = Metrics.accuracy(testPredictions, testActual);
             double testF1 = Metrics.f1Score(testPredictions, testActual);
@@ -110,6 +117,15 @@ public class Main {
             logger.info("");
             logger.info(Metrics.confusionMatrixString(testPredictions, testActual));
 
+            // Float32 scoring check: float-threshold trees on float-rounded inputs vs the double path
+            int[] float32Predictions = rf.predictBatch(testSet.getFloatFeatures()).getPredictions();
+            int float32Matches = 0;
+            for (int i = 0; i < testPredictions.length; i++) {
+                if (float32Predictions[i] == testPredictions[i]) float32Matches++;
+            }
+            logger.info("Float32 scoring agreement: "
+                + String.format("%.4f", (double) float32Matches / testPredictions.length));
+
             logger.info("\n=== Training Set Evaluation (for comparison) ===");
             int[] trainPredictions = rf.predict(trainSet.getFeatures());
             int[] trainActual = new int[trainSet.getNumSamples()];
@@ -138,6 +154,9 @@ public class Main {
                 }
             }
 
+            Path modelPath = runOutputs.writeModel(rf);
+            logger.info("\nSaved model to: " + modelPath.toAbsolutePath());
+
             logger.info("\n=== Detailed Predictions on First 5 Test Samples ===");
             String[] classNames = {"No Heart Disease", "Heart Disease"};
             int samplesToDisplay = Math.min(5, testSet.getNumSamples());
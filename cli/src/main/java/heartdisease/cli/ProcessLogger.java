@@ -1,3 +1,5 @@
+package heartdisease.cli;
+
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
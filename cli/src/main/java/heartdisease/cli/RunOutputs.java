@@ -1,3 +1,7 @@
+package heartdisease.cli;
+
+import heartdisease.forest.RandomForest;
+
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -138,6 +142,12 @@ public class RunOutputs {
         return file;
     }
 
+    public Path writeModel(RandomForest forest) throws IOException {
+        Path file = runDir.resolve("model.rfm");
+        forest.save(file);
+        return file;
+    }
+
     private static String escapeJson(String value) {
         return value.replace("\\", "\\\\").replace("\"", "\\\"");
     }
@@ -0,0 +1,252 @@
+package heartdisease.data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Compact binary file format for a Dataset, loaded by memory-mapping the file and
+ * copying each block straight into the column arrays, with no parsing.
+ *
+ * Layout (little-endian):
+ *   magic "RFDS", version, value type, feature count, row count (long),
+ *   feature names (UTF-8 byte length + bytes each), zero padding to an 8-byte boundary,
+ *   one block per feature column (row count values of the value type),
+ *   label block (row count ints).
+ */
+public class BinaryDataset {
+    private static final int MAGIC = 0x53444652; // "RFDS" read little-endian
+    private static final int VERSION = 1;
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+    /**
+     * Encoding of the feature blocks. FLOAT32 halves the file but rounds every value
+     * to float precision.
+     */
+    public enum ValueType {
+        FLOAT64(8),
+        FLOAT32(4);
+
+        private final int width;
+
+        ValueType(int width) {
+            this.width = width;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+    }
+
+    /**
+     * Write a dataset with full double precision
+     */
+    public static void write(Dataset dataset, Path path) throws IOException {
+        write(dataset, path, ValueType.FLOAT64);
+    }
+
+    public static void write(Dataset dataset, Path path, ValueType valueType) throws IOException {
+        String[] featureNames = dataset.getFeatureNames();
+        int numFeatures = dataset.getNumFeatures();
+        int numSamples = dataset.getNumSamples();
+
+        byte[][] encodedNames = new byte[numFeatures][];
+        int headerSize = 24;
+        for (int i = 0; i < numFeatures; i++) {
+            encodedNames[i] = featureNames[i].getBytes(StandardCharsets.UTF_8);
+            headerSize += 4 + encodedNames[i].length;
+        }
+        headerSize = align(headerSize);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(Math.max(WRITE_BUFFER_SIZE, headerSize))
+                .order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(valueType.ordinal()).putInt(numFeatures).putLong(numSamples);
+            for (byte[] name : encodedNames) {
+                buffer.putInt(name.length).put(name);
+            }
+            while (buffer.position() < headerSize) {
+                buffer.put((byte) 0);
+            }
+
+            for (int attribute = 0; attribute < numFeatures; attribute++) {
+                FeatureColumn column = dataset.getFeatureColumns()[attribute];
+                for (int i = 0; i < numSamples; i++) {
+                    double value = column.get(i);
+                    if (buffer.remaining() < 8) {
+                        flush(channel, buffer);
+                    }
+                    if (valueType == ValueType.FLOAT64) {
+                        buffer.putDouble(value);
+                    } else {
+                        buffer.putFloat((float) value);
+                    }
+                }
+            }
+            for (int label : dataset.getLabels()) {
+                if (buffer.remaining() < 4) {
+                    flush(channel, buffer);
+                }
+                buffer.putInt(label);
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Load a dataset written by write. Each column is mapped and bulk-copied into a
+     * heap array: double for FLOAT64 files, float for FLOAT32 files.
+     */
+    public static Dataset read(Path path) throws IOException {
+        return open(path, false);
+    }
+
+    /**
+     * Open a dataset written by write for out-of-core use: feature columns stay in the
+     * mapped file and are read in place (see FeatureColumn), so only labels and the
+     * training structures take heap space. The mapping outlives the open file.
+     */
+    public static Dataset map(Path path) throws IOException {
+        return open(path, true);
+    }
+
+    private static Dataset open(Path path, boolean inPlace) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer fixed = readFully(channel, 0, 24);
+            if (fixed.getInt() != MAGIC) {
+                throw new IOException(path + " is not a binary dataset file");
+            }
+            int version = fixed.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported binary dataset version " + version + " in " + path);
+            }
+            int valueTypeCode = fixed.getInt();
+            if (valueTypeCode < 0 || valueTypeCode >= ValueType.values().length) {
+                throw new IOException("Unknown value type " + valueTypeCode + " in " + path);
+            }
+            ValueType valueType = ValueType.values()[valueTypeCode];
+            int numFeatures = fixed.getInt();
+            long rowCount = fixed.getLong();
+            if (numFeatures < 0 || rowCount < 0) {
+                throw new IOException("Corrupt header in " + path + ": " + numFeatures + " features, "
+                    + rowCount + " rows");
+            }
+            // Every feature name takes at least its 4-byte length and every row a 4-byte
+            // label, so neither count can exceed what the file holds
+            long fileSize = channel.size();
+            if (numFeatures > (fileSize - 24) / 4 || rowCount > fileSize / 4) {
+                throw new IOException("Corrupt header in " + path + ": " + numFeatures + " features, "
+                    + rowCount + " rows in a file of " + fileSize + " bytes");
+            }
+            if (rowCount > Integer.MAX_VALUE) {
+                throw new IOException("Too many rows for an in-memory dataset: " + rowCount);
+            }
+            int numSamples = (int) rowCount;
+
+            String[] featureNames = new String[numFeatures];
+            long offset = 24;
+            for (int i = 0; i < numFeatures; i++) {
+                int length = readFully(channel, offset, 4).getInt();
+                if (length < 0 || offset + 4 + length > channel.size()) {
+                    throw new IOException("Corrupt feature name length " + length + " in " + path);
+                }
+                ByteBuffer name = readFully(channel, offset + 4, length);
+                featureNames[i] = new String(name.array(), 0, length, StandardCharsets.UTF_8);
+                offset += 4 + length;
+            }
+            offset = align(offset);
+
+            long expectedSize = offset + (long) numFeatures * numSamples * valueType.getWidth() + 4L * numSamples;
+            if (channel.size() < expectedSize) {
+                throw new IOException(path + " is truncated: expected " + expectedSize + " bytes");
+            }
+
+            long columnBytes = (long) numSamples * valueType.getWidth();
+            if (columnBytes > Integer.MAX_VALUE) {
+                throw new IOException("Feature columns of " + numSamples + " rows are too large to map");
+            }
+            double[][] columns = inPlace || valueType != ValueType.FLOAT64 ? null : new double[numFeatures][numSamples];
+            FeatureColumn[] accessors = columns == null ? new FeatureColumn[numFeatures] : null;
+            for (int attribute = 0; attribute < numFeatures; attribute++) {
+                MappedByteBuffer block = channel.map(FileChannel.MapMode.READ_ONLY, offset, columnBytes);
+                block.order(ByteOrder.LITTLE_ENDIAN);
+                offset += columnBytes;
+                if (inPlace) {
+                    accessors[attribute] = valueType == ValueType.FLOAT64
+                        ? new FeatureColumn.DoubleBufferColumn(block)
+                        : new FeatureColumn.FloatBufferColumn(block);
+                    continue;
+                }
+                if (valueType == ValueType.FLOAT64) {
+                    block.asDoubleBuffer().get(columns[attribute]);
+                } else {
+                    float[] values = new float[numSamples];
+                    block.asFloatBuffer().get(values);
+                    accessors[attribute] = new FeatureColumn.FloatArrayColumn(values);
+                }
+            }
+
+            int[] labels = new int[numSamples];
+            channel.map(FileChannel.MapMode.READ_ONLY, offset, 4L * numSamples)
+                .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(labels);
+
+            return columns == null
+                ? Dataset.fromFeatureColumns(accessors, labels, featureNames)
+                : Dataset.fromColumns(columns, labels, featureNames);
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of binary dataset file");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static int align(int offset) {
+        return (offset + 7) & ~7;
+    }
+
+    private static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+
+    /**
+     * Convert a CSV file (see DataLoader.loadFromCSV) to the binary format
+     */
+    public static void convert(Path csvPath, Path binaryPath, ValueType valueType) throws IOException {
+        write(CsvParser.parse(csvPath), binaryPath, valueType);
+    }
+
+    /**
+     * Command line converter: BinaryDataset input.csv output.bin [float32]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: java BinaryDataset <input.csv> <output.bin> [float32]");
+            System.exit(1);
+        }
+        ValueType valueType = args.length > 2 && args[2].equalsIgnoreCase("float32")
+            ? ValueType.FLOAT32 : ValueType.FLOAT64;
+        convert(Paths.get(args[0]), Paths.get(args[1]), valueType);
+    }
+}
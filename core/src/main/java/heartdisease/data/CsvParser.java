@@ -0,0 +1,306 @@
+package heartdisease.data;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Streaming CSV reader for numeric datasets. Bytes are read from a file channel into a
+ * reused buffer and parsed in place straight into growable primitive columns, so no
+ * String is allocated per line or per cell.
+ *
+ * Expected layout: a header line of column names, then one sample per line with the
+ * feature values followed by the target label. Blank lines are skipped and whitespace
+ * around cells is ignored. Every value parses to the same double as Double.parseDouble.
+ */
+public class CsvParser {
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // Powers of ten that are exact doubles, for the common short-number path
+    private static final double[] EXACT_POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final int MIN_POWER = -342;
+    private static final int MAX_POWER = 308;
+    // POWERS_OF_FIVE[q - MIN_POWER] holds the top 64 bits of 5^q, normalized so bit 63 is set
+    private static final long[] POWERS_OF_FIVE = buildPowersOfFive();
+
+    private final FileChannel channel;
+    private ByteBuffer buffer;
+    private byte[] bytes;
+    private int position;
+    private int limit;
+    private boolean endOfInput;
+    // Bounds of the current line within bytes, without the line terminator
+    private int lineStart;
+    private int lineEnd;
+    private long lineNumber;
+
+    private CsvParser(FileChannel channel) {
+        this.channel = channel;
+        this.bytes = new byte[BUFFER_SIZE];
+        this.buffer = ByteBuffer.wrap(bytes);
+    }
+
+    /**
+     * Parse a CSV file into a columnar dataset
+     */
+    public static Dataset parse(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new CsvParser(channel).readDataset();
+        }
+    }
+
+    private Dataset readDataset() throws IOException {
+        if (!nextLine()) {
+            return Dataset.fromColumns(new double[0][0], new int[0], new String[0]);
+        }
+        String[] headers = new String(bytes, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8).split(",");
+        int numFeatures = headers.length - 1; // Last column is target
+        String[] featureNames = new String[numFeatures];
+        for (int i = 0; i < numFeatures; i++) {
+            featureNames[i] = headers[i].trim();
+        }
+
+        double[][] columns = new double[numFeatures][INITIAL_CAPACITY];
+        int[] labels = new int[INITIAL_CAPACITY];
+        int numSamples = 0;
+
+        while (nextLine()) {
+            if (isBlank(lineStart, lineEnd)) continue;
+
+            if (numSamples == labels.length) {
+                int capacity = labels.length + (labels.length >> 1);
+                for (int i = 0; i < numFeatures; i++) {
+                    columns[i] = Arrays.copyOf(columns[i], capacity);
+                }
+                labels = Arrays.copyOf(labels, capacity);
+            }
+
+            int cell = lineStart;
+            for (int i = 0; i < numFeatures; i++) {
+                int comma = indexOfComma(cell, lineEnd);
+                if (comma == lineEnd) {
+                    throw new IOException("Line " + lineNumber + " has fewer than " + headers.length + " columns");
+                }
+                columns[i][numSamples] = parseDouble(cell, comma);
+                cell = comma + 1;
+            }
+            labels[numSamples] = (int) parseDouble(cell, indexOfComma(cell, lineEnd));
+            numSamples++;
+        }
+
+        for (int i = 0; i < numFeatures; i++) {
+            columns[i] = Arrays.copyOf(columns[i], numSamples);
+        }
+        return Dataset.fromColumns(columns, Arrays.copyOf(labels, numSamples), featureNames);
+    }
+
+    /**
+     * Advance to the next line, refilling the buffer as needed. Returns false at end of input.
+     */
+    private boolean nextLine() throws IOException {
+        int scan = position;
+        while (true) {
+            while (scan < limit && bytes[scan] != '\n') {
+                scan++;
+            }
+            if (scan < limit || (endOfInput && position < limit)) {
+                lineStart = position;
+                lineEnd = scan;
+                position = scan < limit ? scan + 1 : limit;
+                if (lineEnd > lineStart && bytes[lineEnd - 1] == '\r') {
+                    lineEnd--;
+                }
+                lineNumber++;
+                return true;
+            }
+            if (endOfInput) {
+                return false;
+            }
+            scan -= position;
+            fill();
+        }
+    }
+
+    /**
+     * Move the unread tail of the buffer to the front and read more bytes after it,
+     * growing the buffer when a single line does not fit
+     */
+    private void fill() throws IOException {
+        int remaining = limit - position;
+        if (remaining == bytes.length) {
+            bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            buffer = ByteBuffer.wrap(bytes);
+        } else {
+            System.arraycopy(bytes, position, bytes, 0, remaining);
+        }
+        buffer.clear().position(remaining);
+        int read = 0;
+        while (read == 0) {
+            read = channel.read(buffer);
+        }
+        position = 0;
+        limit = buffer.position();
+        endOfInput = read < 0;
+    }
+
+    private boolean isBlank(int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] > ' ') return false;
+        }
+        return true;
+    }
+
+    private int indexOfComma(int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == ',') return i;
+        }
+        return to;
+    }
+
+    /**
+     * Parse bytes[from, to) as a decimal number, surrounding whitespace allowed. Plain
+     * decimal and exponent notation is converted without allocating; anything else
+     * (NaN, Infinity, hex, very long or extreme values) goes through Double.parseDouble.
+     */
+    private double parseDouble(int from, int to) {
+        while (from < to && bytes[from] <= ' ') from++;
+        while (to > from && bytes[to - 1] <= ' ') to--;
+
+        int i = from;
+        boolean negative = false;
+        if (i < to && (bytes[i] == '-' || bytes[i] == '+')) {
+            negative = bytes[i] == '-';
+            i++;
+        }
+
+        long significand = 0;
+        int significantDigits = 0;
+        int digits = 0;
+        int exponent = 0;
+        for (; i < to && isDigit(bytes[i]); i++, digits++) {
+            if (significand != 0 || bytes[i] != '0') {
+                significand = significand * 10 + (bytes[i] - '0');
+                significantDigits++;
+            }
+        }
+        if (i < to && bytes[i] == '.') {
+            for (i++; i < to && isDigit(bytes[i]); i++, digits++) {
+                if (significand != 0 || bytes[i] != '0') {
+                    significand = significand * 10 + (bytes[i] - '0');
+                    significantDigits++;
+                }
+                exponent--;
+            }
+        }
+        if (digits > 0 && i < to && (bytes[i] == 'e' || bytes[i] == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < to && (bytes[i] == '-' || bytes[i] == '+')) {
+                negativeExponent = bytes[i] == '-';
+                i++;
+            }
+            int exponentStart = i;
+            int explicitExponent = 0;
+            for (; i < to && isDigit(bytes[i]) && explicitExponent < 100000; i++) {
+                explicitExponent = explicitExponent * 10 + (bytes[i] - '0');
+            }
+            if (i == exponentStart) {
+                return parseSlow(from, to);
+            }
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+        if (digits == 0 || i != to || significantDigits > 19) {
+            return parseSlow(from, to);
+        }
+
+        double value = toDouble(significand, exponent);
+        if (Double.isNaN(value)) {
+            return parseSlow(from, to);
+        }
+        return negative ? -value : value;
+    }
+
+    private double parseSlow(int from, int to) {
+        return Double.parseDouble(new String(bytes, from, to - from, StandardCharsets.ISO_8859_1));
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    /**
+     * Correctly rounded significand * 10^exponent for an unsigned significand of up to 19 digits,
+     * or NaN when the result is not certain and the slow path has to decide.
+     * Small values use exact double arithmetic; the rest follow the Eisel-Lemire method:
+     * one 64x64-bit product with a normalized power of five, falling back whenever the
+     * truncated bits could change the rounding.
+     */
+    private static double toDouble(long significand, int exponent) {
+        if (significand == 0 || exponent < MIN_POWER) {
+            return 0.0;
+        }
+        if (exponent >= -22 && exponent <= 22 && significand > 0 && significand <= (1L << 53)) {
+            double value = significand;
+            return exponent < 0 ? value / EXACT_POWERS_OF_TEN[-exponent] : value * EXACT_POWERS_OF_TEN[exponent];
+        }
+        if (exponent > MAX_POWER) {
+            return Double.NaN;
+        }
+
+        int leadingZeros = Long.numberOfLeadingZeros(significand);
+        long normalized = significand << leadingZeros;
+        long factor = POWERS_OF_FIVE[exponent - MIN_POWER];
+        long upper = multiplyHighUnsigned(normalized, factor);
+
+        long upperBit = upper >>> 63;
+        long mantissa = upper >>> (upperBit + 9);
+        leadingZeros += (int) (1 ^ upperBit);
+        // The product may be one unit short, and an exact halfway needs the discarded bits
+        long guardBits = upper & 0x1FF;
+        if (guardBits == 0x1FF || (guardBits == 0 && (mantissa & 3) == 1)) {
+            return Double.NaN;
+        }
+
+        mantissa = (mantissa + 1) >>> 1;
+        if (mantissa >= (1L << 53)) {
+            mantissa = 1L << 52;
+            leadingZeros--;
+        }
+        long biasedExponent = ((217706L * exponent) >> 16) + 1023 + 64 - leadingZeros;
+        if (biasedExponent < 1 || biasedExponent > 2046) {
+            return Double.NaN;
+        }
+        return Double.longBitsToDouble((mantissa & ~(1L << 52)) | (biasedExponent << 52));
+    }
+
+    private static long multiplyHighUnsigned(long x, long y) {
+        return Math.multiplyHigh(x, y) + ((x >> 63) & y) + ((y >> 63) & x);
+    }
+
+    private static long[] buildPowersOfFive() {
+        long[] powers = new long[MAX_POWER - MIN_POWER + 1];
+        BigInteger five = BigInteger.valueOf(5);
+        for (int q = MIN_POWER; q <= MAX_POWER; q++) {
+            BigInteger value;
+            if (q >= 0) {
+                BigInteger power = five.pow(q);
+                int shift = power.bitLength() - 64;
+                value = shift > 0 ? power.shiftRight(shift) : power.shiftLeft(-shift);
+            } else {
+                BigInteger power = five.pow(-q);
+                value = BigInteger.ONE.shiftLeft(63 + power.bitLength()).divide(power);
+            }
+            powers[q - MIN_POWER] = value.longValue();
+        }
+        return powers;
+    }
+}
@@ -0,0 +1,514 @@
+package heartdisease.data;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.function.LongFunction;
+
+/**
+ * Utility class for loading CSV data
+ */
+public class DataLoader {
+
+    /**
+     * Load dataset from CSV file: a header line, then one sample per line with the
+     * target in the last column. Parsed in a single streaming pass, see CsvParser.
+     */
+    public static Dataset loadFromCSV(String filePath) throws IOException {
+        return CsvParser.parse(Paths.get(filePath));
+    }
+
+    /**
+     * Load a dataset saved in the binary format (see BinaryDataset)
+     */
+    public static Dataset loadFromBinary(String filePath) throws IOException {
+        return BinaryDataset.read(Paths.get(filePath));
+    }
+
+    /**
+     * Open a binary dataset for out-of-core training: features are read in place from
+     * the memory-mapped file instead of being loaded onto the heap
+     */
+    public static Dataset mapBinary(String filePath) throws IOException {
+        return BinaryDataset.map(Paths.get(filePath));
+    }
+
+    /**
+     * Load a CSV file through a binary copy kept next to it (filePath + ".bin"). The copy
+     * is written on first load and reused while it is newer than the CSV, so repeated
+     * runs on the same file skip parsing. A copy that cannot be read (truncated or
+     * corrupt) is replaced by parsing the CSV again.
+     *
+     * The copy is written to a temporary file and renamed into place, so readers (including
+     * other processes mapping it) never see a partial file. Failing to write it, e.g. in a
+     * read-only directory, is not an error: the parsed dataset is returned either way.
+     */
+    public static Dataset loadWithBinaryCache(String filePath) throws IOException {
+        Path csvPath = Paths.get(filePath);
+        Path binaryPath = Paths.get(filePath + ".bin");
+        if (Files.exists(binaryPath)
+                && Files.getLastModifiedTime(binaryPath).compareTo(Files.getLastModifiedTime(csvPath)) > 0) {
+            try {
+                return BinaryDataset.read(binaryPath);
+            } catch (IOException e) {
+                // Stale or damaged copy: fall through and rebuild it from the CSV
+            }
+        }
+        Dataset dataset = CsvParser.parse(csvPath);
+        writeBinaryCache(dataset, binaryPath);
+        return dataset;
+    }
+
+    private static void writeBinaryCache(Dataset dataset, Path binaryPath) {
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(binaryPath.toAbsolutePath().getParent(),
+                binaryPath.getFileName().toString(), ".tmp");
+            BinaryDataset.write(dataset, temp);
+            Files.move(temp, binaryPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            // The copy only saves parsing time; leave no partial file behind
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // Nothing more to clean up
+                }
+            }
+        }
+    }
+
+    /**
+     * Split dataset into train and test sets
+     */
+    public static DataSplit trainTestSplit(Dataset dataset, double testSize, long seed) {
+        return trainTestIndices(dataset.getNumSamples(), testSize, seed).toDataSplit(dataset);
+    }
+
+    /**
+     * Random train/test split as row indices: after a seeded shuffle the last
+     * (int) (numSamples * testSize) rows are the test set and the rest the training set.
+     * Same rows, in the same order, as trainTestSplit with the same seed.
+     */
+    public static IndexSplit trainTestIndices(int numSamples, double testSize, long seed) {
+        validateTestSize(testSize);
+        int testSamples = (int) (numSamples * testSize);
+        int trainSamples = numSamples - testSamples;
+
+        int[] indices = shuffledIndices(numSamples, new Random(seed));
+        int[] trainIndices = Arrays.copyOfRange(indices, 0, trainSamples);
+        int[] testIndices = Arrays.copyOfRange(indices, trainSamples, numSamples);
+        return new IndexSplit(trainIndices, testIndices);
+    }
+
+    /**
+     * Stratified train/test split as row indices: each class contributes
+     * round(classCount * testSize) of its shuffled rows to the test set, so both sides
+     * keep the dataset's class balance
+     * @param labels Class of every sample (non-negative)
+     */
+    public static IndexSplit stratifiedTrainTestIndices(int[] labels, double testSize, long seed) {
+        validateTestSize(testSize);
+        int[] indices = shuffledIndices(labels.length, new Random(seed));
+        int[] byClass = groupStable(indices, labels);
+
+        int numTest = 0;
+        int classStart = 0;
+        while (classStart < byClass.length) {
+            int classEnd = classStart;
+            while (classEnd < byClass.length && labels[byClass[classEnd]] == labels[byClass[classStart]]) {
+                classEnd++;
+            }
+            numTest += (int) Math.round((classEnd - classStart) * testSize);
+            classStart = classEnd;
+        }
+
+        int[] trainIndices = new int[byClass.length - numTest];
+        int[] testIndices = new int[numTest];
+        int nextTrain = 0;
+        int nextTest = 0;
+        classStart = 0;
+        while (classStart < byClass.length) {
+            int classEnd = classStart;
+            while (classEnd < byClass.length && labels[byClass[classEnd]] == labels[byClass[classStart]]) {
+                classEnd++;
+            }
+            int classTest = (int) Math.round((classEnd - classStart) * testSize);
+            for (int i = classStart; i < classEnd; i++) {
+                if (i - classStart < classTest) {
+                    testIndices[nextTest++] = byClass[i];
+                } else {
+                    trainIndices[nextTrain++] = byClass[i];
+                }
+            }
+            classStart = classEnd;
+        }
+        return new IndexSplit(trainIndices, testIndices);
+    }
+
+    /**
+     * Split a CSV file into train and test files in one streaming pass, holding only the
+     * current line in memory. Lines are copied verbatim and the header goes to both files.
+     *
+     * Each data line goes to the test file at random, with the chance steered so that
+     * the test count never drifts more than one line from testSize times the lines seen
+     * so far. With stratify, this is tracked per label (the last column), so every class
+     * is split in the same proportion; otherwise over all lines. The same file and seed
+     * always give the same split.
+     */
+    public static SplitCounts splitCsvFile(Path input, Path trainOutput, Path testOutput,
+                                           double testSize, boolean stratify, long seed) throws IOException {
+        validateTestSize(testSize);
+        Random random = new Random(seed);
+        Map<String, long[]> seenAndTest = new HashMap<>();
+        long trainRows = 0;
+        long testRows = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(input);
+             BufferedWriter train = Files.newBufferedWriter(trainOutput);
+             BufferedWriter test = Files.newBufferedWriter(testOutput)) {
+            String header = reader.readLine();
+            if (header == null) {
+                throw new IOException("Empty file: " + input);
+            }
+            train.write(header);
+            train.newLine();
+            test.write(header);
+            test.newLine();
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) continue;
+                String key = stratify ? line.substring(line.lastIndexOf(',') + 1).trim() : "";
+                long[] counts = seenAndTest.computeIfAbsent(key, k -> new long[2]);
+                counts[0]++;
+                // Go to test with probability equal to the test set's current shortfall
+                double shortfall = counts[0] * testSize - counts[1];
+                if (shortfall >= 1.0 || (shortfall > 0.0 && random.nextDouble() < shortfall)) {
+                    counts[1]++;
+                    testRows++;
+                    test.write(line);
+                    test.newLine();
+                } else {
+                    trainRows++;
+                    train.write(line);
+                    train.newLine();
+                }
+            }
+        }
+        return new SplitCounts(trainRows, testRows);
+    }
+
+    private static void validateTestSize(double testSize) {
+        if (!(testSize >= 0.0 && testSize <= 1.0)) {
+            throw new IllegalArgumentException("Test size must be between 0 and 1");
+        }
+    }
+
+    /**
+     * Split dataset into K folds for cross-validation
+     * @param dataset The dataset to split
+     * @param k Number of folds
+     * @param seed Random seed for shuffling
+     * @return List of K DataSplit objects, where each split has one fold as test and the rest as train
+     */
+    public static List<DataSplit> kFoldSplit(Dataset dataset, int k, long seed) {
+        int numSamples = dataset.getNumSamples();
+        validateFolds(numSamples, k);
+        
+        // Folds are consecutive runs of the shuffled indices
+        int[] indices = shuffledIndices(numSamples, new Random(seed));
+        
+        // Calculate fold size
+        int foldSize = numSamples / k;
+        int remainder = numSamples % k;
+        
+        List<DataSplit> splits = new ArrayList<>();
+        
+        int currentIndex = 0;
+        for (int fold = 0; fold < k; fold++) {
+            // Calculate size of this fold (distribute remainder across first few folds)
+            int currentFoldSize = foldSize + (fold < remainder ? 1 : 0);
+            
+            int[] validationIndices = Arrays.copyOfRange(indices, currentIndex, currentIndex + currentFoldSize);
+            
+            // Training indices: the shuffled indices before and after the validation run
+            int[] trainIndices = new int[numSamples - currentFoldSize];
+            System.arraycopy(indices, 0, trainIndices, 0, currentIndex);
+            System.arraycopy(indices, currentIndex + currentFoldSize, trainIndices, currentIndex,
+                numSamples - currentIndex - currentFoldSize);
+            
+            Dataset trainSet = dataset.trainingSubset(trainIndices);
+            Dataset validationSet = dataset.subset(validationIndices);
+            
+            splits.add(new DataSplit(trainSet, validationSet));
+            currentIndex += currentFoldSize;
+        }
+        
+        return splits;
+    }
+
+    /**
+     * Fold of every sample (assignments[row] in [0, k)), in O(n). Folds are the same as
+     * in kFoldSplit with the same seed.
+     */
+    public static int[] kFoldAssignments(int numSamples, int k, long seed) {
+        validateFolds(numSamples, k);
+        int[] indices = shuffledIndices(numSamples, new Random(seed));
+        int[] assignments = new int[numSamples];
+        int foldSize = numSamples / k;
+        int remainder = numSamples % k;
+        int position = 0;
+        for (int fold = 0; fold < k; fold++) {
+            int end = position + foldSize + (fold < remainder ? 1 : 0);
+            for (; position < end; position++) {
+                assignments[indices[position]] = fold;
+            }
+        }
+        return assignments;
+    }
+
+    /**
+     * Stratified fold assignments: every class is spread over the folds in proportion,
+     * so each fold's class balance matches the dataset's. Fold sizes differ by at most one.
+     * @param labels Class of every sample (non-negative)
+     */
+    public static int[] stratifiedKFoldAssignments(int[] labels, int k, long seed) {
+        validateFolds(labels.length, k);
+        int[] indices = shuffledIndices(labels.length, new Random(seed));
+        int[] byClass = groupStable(indices, labels);
+
+        // Deal the shuffled rows of each class round-robin, continuing across classes
+        int[] assignments = new int[labels.length];
+        for (int i = 0; i < byClass.length; i++) {
+            assignments[byClass[i]] = i % k;
+        }
+        return assignments;
+    }
+
+    /**
+     * Grouped fold assignments: all samples of a group (e.g. one patient's records) land
+     * in the same fold, so no group is on both sides of a split. Groups are placed
+     * largest first, each into the currently smallest fold; groups of equal size are
+     * taken in seeded random order.
+     * @param groups Group id of every sample, in [0, number of groups)
+     */
+    public static int[] groupKFoldAssignments(int[] groups, int k, long seed) {
+        validateFolds(groups.length, k);
+        int numGroups = 0;
+        for (int group : groups) {
+            if (group < 0) {
+                throw new IllegalArgumentException("Group ids must be non-negative");
+            }
+            numGroups = Math.max(numGroups, group + 1);
+        }
+        double[] negativeSizes = new double[numGroups];
+        for (int group : groups) {
+            negativeSizes[group]--;
+        }
+        int nonEmptyGroups = 0;
+        for (double size : negativeSizes) {
+            if (size < 0) nonEmptyGroups++;
+        }
+        if (nonEmptyGroups < k) {
+            throw new IllegalArgumentException("Number of folds (k) cannot be greater than number of groups");
+        }
+
+        int[] order = shuffledIndices(numGroups, new Random(seed));
+        IndexSort.sort(order, negativeSizes);
+        int[] groupFold = new int[numGroups];
+        int[] foldSizes = new int[k];
+        for (int group : order) {
+            int smallest = 0;
+            for (int fold = 1; fold < k; fold++) {
+                if (foldSizes[fold] < foldSizes[smallest]) smallest = fold;
+            }
+            groupFold[group] = smallest;
+            foldSizes[smallest] -= (int) negativeSizes[group];
+        }
+
+        int[] assignments = new int[groups.length];
+        for (int i = 0; i < groups.length; i++) {
+            assignments[i] = groupFold[groups[i]];
+        }
+        return assignments;
+    }
+
+    /**
+     * Repeated k-fold: one set of fold assignments per repeat, each from any of the
+     * assignment functions above with its own seed drawn from seed, e.g.
+     * repeatedKFold(3, 42L, s -> stratifiedKFoldAssignments(labels, 5, s))
+     */
+    public static int[][] repeatedKFold(int repeats, long seed, LongFunction<int[]> assign) {
+        if (repeats < 1) {
+            throw new IllegalArgumentException("Number of repeats must be at least 1");
+        }
+        Random seeds = new Random(seed);
+        int[][] assignments = new int[repeats][];
+        for (int r = 0; r < repeats; r++) {
+            assignments[r] = assign.apply(seeds.nextLong());
+        }
+        return assignments;
+    }
+
+    /**
+     * Index views of the k folds of an assignment: for each fold, the rows held out and
+     * the rows trained on, both ascending. Built with one counting pass; no samples are
+     * copied until a view is turned into datasets with IndexSplit.toDataSplit.
+     */
+    public static List<IndexSplit> kFoldIndices(int[] assignments, int k) {
+        int[] foldSizes = new int[k];
+        for (int fold : assignments) {
+            if (fold < 0 || fold >= k) {
+                throw new IllegalArgumentException("Fold assignments must be in [0, " + k + ")");
+            }
+            foldSizes[fold]++;
+        }
+        int[][] testRows = new int[k][];
+        for (int fold = 0; fold < k; fold++) {
+            testRows[fold] = new int[foldSizes[fold]];
+        }
+        int[] filled = new int[k];
+        for (int row = 0; row < assignments.length; row++) {
+            int fold = assignments[row];
+            testRows[fold][filled[fold]++] = row;
+        }
+
+        List<IndexSplit> splits = new ArrayList<>(k);
+        for (int fold = 0; fold < k; fold++) {
+            int[] trainRows = new int[assignments.length - foldSizes[fold]];
+            int next = 0;
+            for (int row = 0; row < assignments.length; row++) {
+                if (assignments[row] != fold) {
+                    trainRows[next++] = row;
+                }
+            }
+            splits.add(new IndexSplit(trainRows, testRows[fold]));
+        }
+        return splits;
+    }
+
+    private static void validateFolds(int numSamples, int k) {
+        if (k < 2) {
+            throw new IllegalArgumentException("Number of folds (k) must be at least 2");
+        }
+        if (k > numSamples) {
+            throw new IllegalArgumentException("Number of folds (k) cannot be greater than number of samples");
+        }
+    }
+
+    /**
+     * 0..n-1 shuffled with the same draws as Collections.shuffle on a list of them
+     */
+    private static int[] shuffledIndices(int n, Random random) {
+        int[] indices = new int[n];
+        for (int i = 0; i < n; i++) {
+            indices[i] = i;
+        }
+        for (int i = n; i > 1; i--) {
+            int j = random.nextInt(i);
+            int tmp = indices[i - 1];
+            indices[i - 1] = indices[j];
+            indices[j] = tmp;
+        }
+        return indices;
+    }
+
+    /**
+     * Rows reordered by label (counting sort), keeping their order within each label
+     */
+    private static int[] groupStable(int[] rows, int[] labels) {
+        int numClasses = 0;
+        for (int label : labels) {
+            if (label < 0) {
+                throw new IllegalArgumentException("Labels must be non-negative");
+            }
+            numClasses = Math.max(numClasses, label + 1);
+        }
+        int[] offsets = new int[numClasses + 1];
+        for (int row : rows) {
+            offsets[labels[row] + 1]++;
+        }
+        for (int c = 0; c < numClasses; c++) {
+            offsets[c + 1] += offsets[c];
+        }
+        int[] grouped = new int[rows.length];
+        for (int row : rows) {
+            grouped[offsets[labels[row]]++] = row;
+        }
+        return grouped;
+    }
+
+    /**
+     * Helper class to hold train/test split
+     */
+    public static class DataSplit {
+        private final Dataset trainSet;
+        private final Dataset testSet;
+
+        public DataSplit(Dataset trainSet, Dataset testSet) {
+            this.trainSet = trainSet;
+            this.testSet = testSet;
+        }
+
+        public Dataset getTrainSet() {
+            return trainSet;
+        }
+
+        public Dataset getTestSet() {
+            return testSet;
+        }
+    }
+
+    /**
+     * Line counts written by splitCsvFile
+     */
+    public static class SplitCounts {
+        private final long trainRows;
+        private final long testRows;
+
+        public SplitCounts(long trainRows, long testRows) {
+            this.trainRows = trainRows;
+            this.testRows = testRows;
+        }
+
+        public long getTrainRows() {
+            return trainRows;
+        }
+
+        public long getTestRows() {
+            return testRows;
+        }
+    }
+
+    /**
+     * Train and test rows of a split as index arrays into a dataset, without copies
+     */
+    public static class IndexSplit {
+        private final int[] trainRows;
+        private final int[] testRows;
+
+        public IndexSplit(int[] trainRows, int[] testRows) {
+            this.trainRows = trainRows;
+            this.testRows = testRows;
+        }
+
+        public int[] getTrainRows() {
+            return trainRows;
+        }
+
+        public int[] getTestRows() {
+            return testRows;
+        }
+
+        /**
+         * Materialize both sides as datasets (see Dataset.trainingSubset and subset)
+         */
+        public DataSplit toDataSplit(Dataset dataset) {
+            return new DataSplit(dataset.trainingSubset(trainRows), dataset.subset(testRows));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,402 @@
+package heartdisease.data;
+
+import java.util.Arrays;
+
+/**
+ * Represents a dataset with features and labels for training/testing.
+ *
+ * Features can be held row-major (one array per sample, used for prediction),
+ * column-major (one contiguous array per feature, used by the split finders), or both.
+ * Whichever layout is missing is built from the other on first use and cached.
+ *
+ * A dataset can also be backed only by FeatureColumn accessors, e.g. memory-mapped
+ * blocks of a binary dataset file. Training and prediction read such columns in
+ * place; asking for the heap layouts copies them into memory.
+ */
+public class Dataset {
+    private volatile double[][] features;
+    private volatile double[][] columns;
+    private volatile FeatureColumn[] featureColumns;
+    // Created from accessors: they hold the values, any double layout is a cached copy
+    private final boolean accessorBacked;
+    private final int[] labels;
+    private final String[] featureNames;
+    private final int numFeatures;
+    // Quantized columns for histogram split search, built on first use
+    private FeatureBins bins;
+    // Row indices of each column in ascending value order, built on first use
+    private int[][] sortedOrders;
+
+    public Dataset(double[][] features, int[] labels, String[] featureNames) {
+        this.features = features;
+        this.accessorBacked = false;
+        this.labels = labels;
+        this.featureNames = featureNames;
+        this.numFeatures = features.length > 0 ? features[0].length : 0;
+    }
+
+    private Dataset(double[][] features, double[][] columns, FeatureColumn[] featureColumns,
+                    int[] labels, String[] featureNames, int numFeatures) {
+        this.features = features;
+        this.columns = columns;
+        this.featureColumns = featureColumns;
+        this.accessorBacked = features == null && columns == null;
+        this.labels = labels;
+        this.featureNames = featureNames;
+        this.numFeatures = numFeatures;
+    }
+
+    /**
+     * Create a dataset backed by feature columns (columns[feature][sample])
+     */
+    public static Dataset fromColumns(double[][] columns, int[] labels, String[] featureNames) {
+        for (double[] column : columns) {
+            if (column.length != labels.length) {
+                throw new IllegalArgumentException("Every feature column must have one value per label");
+            }
+        }
+        return new Dataset(null, columns, null, labels, featureNames, columns.length);
+    }
+
+    /**
+     * Create a dataset that reads its features through column accessors, which may be
+     * off-heap. No feature values are copied.
+     */
+    public static Dataset fromFeatureColumns(FeatureColumn[] columns, int[] labels, String[] featureNames) {
+        for (FeatureColumn column : columns) {
+            if (column.size() != labels.length) {
+                throw new IllegalArgumentException("Every feature column must have one value per label");
+            }
+        }
+        return new Dataset(null, null, columns, labels, featureNames, columns.length);
+    }
+
+    /**
+     * Row-major features, built from the columns if the dataset was created columnar
+     */
+    public double[][] getFeatures() {
+        double[][] rows = features;
+        if (rows == null) {
+            rows = buildRows();
+        }
+        return rows;
+    }
+
+    private synchronized double[][] buildRows() {
+        if (features == null) {
+            double[][] rows = new double[labels.length][numFeatures];
+            FeatureColumn[] accessors = getFeatureColumns();
+            for (int attribute = 0; attribute < numFeatures; attribute++) {
+                FeatureColumn column = accessors[attribute];
+                for (int i = 0; i < rows.length; i++) {
+                    rows[i][attribute] = column.get(i);
+                }
+            }
+            features = rows;
+        }
+        return features;
+    }
+
+    /**
+     * Column-major features (columns[feature][sample]), built from the rows on first use
+     */
+    public double[][] getColumns() {
+        double[][] cols = columns;
+        if (cols == null) {
+            cols = buildColumns();
+        }
+        return cols;
+    }
+
+    private synchronized double[][] buildColumns() {
+        if (columns == null) {
+            double[][] rows = features;
+            double[][] cols = new double[numFeatures][];
+            if (rows == null) {
+                for (int attribute = 0; attribute < numFeatures; attribute++) {
+                    cols[attribute] = featureColumns[attribute].toArray();
+                }
+            } else {
+                for (int attribute = 0; attribute < numFeatures; attribute++) {
+                    cols[attribute] = new double[rows.length];
+                }
+                for (int i = 0; i < rows.length; i++) {
+                    double[] row = rows[i];
+                    for (int attribute = 0; attribute < numFeatures; attribute++) {
+                        cols[attribute][i] = row[attribute];
+                    }
+                }
+            }
+            columns = cols;
+        }
+        return columns;
+    }
+
+    /**
+     * Contiguous values of one feature across all samples
+     */
+    public double[] getColumn(int attribute) {
+        return getColumns()[attribute];
+    }
+
+    /**
+     * Per-feature accessors used by training. Wrap the heap columns unless the dataset
+     * was created from accessors, in which case values stay where they are.
+     */
+    public FeatureColumn[] getFeatureColumns() {
+        FeatureColumn[] accessors = featureColumns;
+        if (accessors == null) {
+            accessors = wrapColumns();
+        }
+        return accessors;
+    }
+
+    private synchronized FeatureColumn[] wrapColumns() {
+        if (featureColumns == null) {
+            double[][] cols = getColumns();
+            FeatureColumn[] accessors = new FeatureColumn[numFeatures];
+            for (int attribute = 0; attribute < numFeatures; attribute++) {
+                accessors[attribute] = FeatureColumn.of(cols[attribute]);
+            }
+            featureColumns = accessors;
+        }
+        return featureColumns;
+    }
+
+    /**
+     * Copy of this dataset with every feature stored as a float (see
+     * FeatureColumn.FloatArrayColumn), halving feature memory. Training reads the
+     * rounded values directly; labels and names are shared.
+     */
+    public Dataset toFloat32() {
+        FeatureColumn[] accessors = getFeatureColumns();
+        FeatureColumn[] floatColumns = new FeatureColumn[numFeatures];
+        for (int attribute = 0; attribute < numFeatures; attribute++) {
+            FeatureColumn source = accessors[attribute];
+            float[] values = new float[labels.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = (float) source.get(i);
+            }
+            floatColumns[attribute] = new FeatureColumn.FloatArrayColumn(values);
+        }
+        return fromFeatureColumns(floatColumns, labels, featureNames);
+    }
+
+    /**
+     * Row-major features rounded to float, for float32 batch scoring. Built on each call.
+     */
+    public float[][] getFloatFeatures() {
+        FeatureColumn[] accessors = getFeatureColumns();
+        float[][] rows = new float[labels.length][numFeatures];
+        for (int attribute = 0; attribute < numFeatures; attribute++) {
+            FeatureColumn column = accessors[attribute];
+            for (int i = 0; i < rows.length; i++) {
+                rows[i][attribute] = (float) column.get(i);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Whether the feature values live in Java heap memory (double or float arrays) rather
+     * than off-heap, e.g. in a memory-mapped file
+     */
+    public boolean isOnHeap() {
+        if (features != null || columns != null) {
+            return true;
+        }
+        for (FeatureColumn column : featureColumns) {
+            if (!column.isOnHeap()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int[] getLabels() {
+        return labels;
+    }
+
+    public String[] getFeatureNames() {
+        return featureNames;
+    }
+
+    public int getNumSamples() {
+        return labels.length;
+    }
+
+    public int getNumFeatures() {
+        return numFeatures;
+    }
+
+    /**
+     * Number of class slots needed to count labels (largest label + 1)
+     */
+    public int getNumClasses() {
+        int maxLabel = -1;
+        for (int label : labels) {
+            if (label > maxLabel) maxLabel = label;
+        }
+        return maxLabel + 1;
+    }
+
+    /**
+     * Get a subset of the dataset by indices, in whichever layouts this dataset already
+     * holds. A dataset backed only by accessors is gathered into heap columns of the same
+     * precision, so float32 subsets stay float32.
+     */
+    public Dataset subset(int[] indices) {
+        int[] subsetLabels = new int[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            subsetLabels[i] = labels[indices[i]];
+        }
+
+        double[][] rows = accessorBacked ? null : features;
+        double[][] subsetFeatures = null;
+        if (rows != null) {
+            subsetFeatures = new double[indices.length][];
+            for (int i = 0; i < indices.length; i++) {
+                subsetFeatures[i] = rows[indices[i]];
+            }
+        }
+
+        double[][] cols = accessorBacked ? null : columns;
+        double[][] subsetColumns = null;
+        FeatureColumn[] subsetAccessors = null;
+        if (accessorBacked) {
+            // Accessor-backed: gather the subset onto the heap
+            FeatureColumn[] accessors = featureColumns;
+            subsetAccessors = new FeatureColumn[numFeatures];
+            for (int attribute = 0; attribute < numFeatures; attribute++) {
+                subsetAccessors[attribute] = accessors[attribute].gather(indices);
+            }
+        } else if (cols != null) {
+            subsetColumns = new double[numFeatures][indices.length];
+            for (int attribute = 0; attribute < numFeatures; attribute++) {
+                double[] source = cols[attribute];
+                double[] target = subsetColumns[attribute];
+                for (int i = 0; i < indices.length; i++) {
+                    target[i] = source[indices[i]];
+                }
+            }
+        }
+
+        Dataset subset = new Dataset(subsetFeatures, subsetColumns, subsetAccessors, subsetLabels, featureNames,
+            numFeatures);
+        // Reuse this dataset's quantization rather than re-binning the subset
+        FeatureBins parentBins = getBinsIfBuilt();
+        if (parentBins != null) {
+            subset.bins = parentBins.subset(indices);
+        }
+        return subset;
+    }
+
+    /**
+     * A subset that is going to be trained on. If this dataset's sorted orders are built,
+     * the subset's are filtered from them right away in O(n) per feature instead of being
+     * sorted later; the subset keeps no reference to this dataset or to indices.
+     */
+    public Dataset trainingSubset(int[] indices) {
+        Dataset subset = subset(indices);
+        int[][] orders = getSortedOrdersIfBuilt();
+        if (orders != null) {
+            subset.sortedOrders = filterSortedOrders(orders, getNumSamples(), indices);
+        }
+        return subset;
+    }
+
+    /**
+     * Feature columns quantized into at most 255 bins, computed once and cached
+     */
+    public synchronized FeatureBins getBins() {
+        if (bins == null) {
+            bins = FeatureBins.build(this);
+        }
+        return bins;
+    }
+
+    private synchronized FeatureBins getBinsIfBuilt() {
+        return bins;
+    }
+
+    /**
+     * For each feature, the row indices sorted by that feature's value (stable),
+     * computed once and cached. Callers must not modify the arrays.
+     */
+    public synchronized int[][] getSortedOrders() {
+        if (sortedOrders == null) {
+            int numSamples = getNumSamples();
+            int[] scratch = new int[numSamples];
+            int[][] orders = new int[numFeatures][numSamples];
+            FeatureColumn[] accessors = getFeatureColumns();
+            for (int attribute = 0; attribute < numFeatures; attribute++) {
+                int[] order = orders[attribute];
+                for (int i = 0; i < numSamples; i++) {
+                    order[i] = i;
+                }
+                IndexSort.sort(order, 0, numSamples, accessors[attribute], scratch);
+            }
+            sortedOrders = orders;
+        }
+        return sortedOrders;
+    }
+
+    private synchronized int[][] getSortedOrdersIfBuilt() {
+        return sortedOrders;
+    }
+
+    /**
+     * Sorted orders of a subset from those of its parent in O(n) per feature: walk each
+     * parent order and keep the subset's rows, renumbered to subset positions. Ties end
+     * up in parent row order rather than subset order, which split search does not see
+     * since it only cuts between distinct values. Returns null when rows repeat (e.g. a
+     * copied bootstrap sample), leaving those subsets to be sorted directly.
+     */
+    private static int[][] filterSortedOrders(int[][] parentOrders, int parentSize, int[] rows) {
+        int[] position = new int[parentSize];
+        Arrays.fill(position, -1);
+        for (int i = 0; i < rows.length; i++) {
+            if (position[rows[i]] >= 0) {
+                return null;
+            }
+            position[rows[i]] = i;
+        }
+
+        int[][] orders = new int[parentOrders.length][rows.length];
+        for (int attribute = 0; attribute < parentOrders.length; attribute++) {
+            int[] order = orders[attribute];
+            int next = 0;
+            for (int row : parentOrders[attribute]) {
+                int subsetRow = position[row];
+                if (subsetRow >= 0) {
+                    order[next++] = subsetRow;
+                }
+            }
+        }
+        return orders;
+    }
+
+    /**
+     * Get a single sample
+     */
+    public double[] getSample(int index) {
+        if (features == null && columns == null) {
+            // Accessor-backed: read the one sample instead of building every row
+            double[] sample = new double[numFeatures];
+            for (int attribute = 0; attribute < numFeatures; attribute++) {
+                sample[attribute] = featureColumns[attribute].get(index);
+            }
+            return sample;
+        }
+        return getFeatures()[index];
+    }
+
+    public double getValue(int index, int attribute) {
+        return getFeatureColumns()[attribute].get(index);
+    }
+
+    public int getLabel(int index) {
+        return labels[index];
+    }
+
+}
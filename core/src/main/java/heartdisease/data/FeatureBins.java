@@ -0,0 +1,124 @@
+package heartdisease.data;
+
+import java.util.Arrays;
+
+/**
+ * Quantization of every feature column into at most 255 ordered bins, stored as one
+ * byte per value. Columns with few distinct values get one bin per value, wider
+ * columns are cut at quantiles.
+ */
+public class FeatureBins {
+    public static final int MAX_BINS = 255;
+
+    // codes[attribute][row] is the unsigned bin index of the row's value
+    private final byte[][] codes;
+    // binMin/binMax[attribute][bin] are the smallest and largest training values in the bin
+    private final double[][] binMin;
+    private final double[][] binMax;
+
+    private FeatureBins(byte[][] codes, double[][] binMin, double[][] binMax) {
+        this.codes = codes;
+        this.binMin = binMin;
+        this.binMax = binMax;
+    }
+
+    /**
+     * Quantize every column of the dataset
+     */
+    public static FeatureBins build(Dataset dataset) {
+        int numSamples = dataset.getNumSamples();
+        int numFeatures = dataset.getNumFeatures();
+        byte[][] codes = new byte[numFeatures][numSamples];
+        double[][] binMin = new double[numFeatures][];
+        double[][] binMax = new double[numFeatures][];
+
+        for (int attribute = 0; attribute < numFeatures; attribute++) {
+            FeatureColumn column = dataset.getFeatureColumns()[attribute];
+            double[] sortedValues = column.toArray();
+            Arrays.sort(sortedValues);
+            computeBinBounds(sortedValues, attribute, binMin, binMax);
+
+            double[] upper = binMax[attribute];
+            for (int i = 0; i < numSamples; i++) {
+                codes[attribute][i] = (byte) findBin(upper, column.get(i));
+            }
+        }
+        return new FeatureBins(codes, binMin, binMax);
+    }
+
+    private static void computeBinBounds(double[] sortedValues, int attribute, double[][] binMin, double[][] binMax) {
+        int n = sortedValues.length;
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (i == 0 || sortedValues[i] != sortedValues[i - 1]) distinct++;
+        }
+
+        double[] mins = new double[Math.min(distinct, MAX_BINS)];
+        double[] maxs = new double[mins.length];
+        int numBins = 0;
+        for (int i = 0; i < n; i++) {
+            boolean newValue = i == 0 || sortedValues[i] != sortedValues[i - 1];
+            // Few distinct values: one bin each. Otherwise open a bin once the rank passes the next quantile.
+            boolean openBin = numBins == 0
+                || (newValue && (distinct <= MAX_BINS || (long) i * MAX_BINS >= (long) numBins * n));
+            if (openBin && numBins < mins.length) {
+                mins[numBins++] = sortedValues[i];
+            }
+            maxs[numBins - 1] = sortedValues[i];
+        }
+        binMin[attribute] = Arrays.copyOf(mins, numBins);
+        binMax[attribute] = Arrays.copyOf(maxs, numBins);
+    }
+
+    /**
+     * First bin whose largest value is >= value (last bin for anything larger)
+     */
+    private static int findBin(double[] upper, double value) {
+        int lo = 0;
+        int hi = upper.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (upper[mid] < value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Bin codes for the given rows, sharing this quantization
+     */
+    public FeatureBins subset(int[] indices) {
+        byte[][] subsetCodes = new byte[codes.length][indices.length];
+        for (int attribute = 0; attribute < codes.length; attribute++) {
+            byte[] source = codes[attribute];
+            byte[] target = subsetCodes[attribute];
+            for (int i = 0; i < indices.length; i++) {
+                target[i] = source[indices[i]];
+            }
+        }
+        return new FeatureBins(subsetCodes, binMin, binMax);
+    }
+
+    public byte[] getCodes(int attribute) {
+        return codes[attribute];
+    }
+
+    public int getBin(int attribute, int row) {
+        return codes[attribute][row] & 0xFF;
+    }
+
+    public int getNumBins(int attribute) {
+        return binMax[attribute].length;
+    }
+
+    /**
+     * Value threshold separating bin and bin + 1: midway between the largest
+     * value of the bin and the smallest value of the next one
+     */
+    public double getThreshold(int attribute, int bin) {
+        return (binMax[attribute][bin] + binMin[attribute][bin + 1]) / 2.0;
+    }
+}
@@ -0,0 +1,169 @@
+package heartdisease.data;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+
+/**
+ * Read access to the values of one feature by row. The split finders and sorts go
+ * through this instead of double[] so a dataset's columns can live on the Java heap
+ * or in memory-mapped file blocks (out-of-core training) with the same code path.
+ */
+public interface FeatureColumn {
+
+    double get(int row);
+
+    int size();
+
+    /**
+     * Copy of all values into a heap array
+     */
+    default double[] toArray() {
+        double[] values = new double[size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = get(i);
+        }
+        return values;
+    }
+
+    /**
+     * The values at the given rows, copied into a heap column of the same precision
+     */
+    default FeatureColumn gather(int[] rows) {
+        double[] values = new double[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            values[i] = get(rows[i]);
+        }
+        return new ArrayColumn(values);
+    }
+
+    /**
+     * Whether the values are held in Java heap memory, as opposed to e.g. a mapped file
+     */
+    default boolean isOnHeap() {
+        return true;
+    }
+
+    static FeatureColumn of(double[] values) {
+        return new ArrayColumn(values);
+    }
+
+    /**
+     * Column held in a double array on the heap
+     */
+    final class ArrayColumn implements FeatureColumn {
+        private final double[] values;
+
+        public ArrayColumn(double[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public double get(int row) {
+            return values[row];
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+
+        @Override
+        public double[] toArray() {
+            return values.clone();
+        }
+    }
+
+    /**
+     * Column held in a float array on the heap: half the memory of ArrayColumn, with
+     * values rounded to float precision
+     */
+    final class FloatArrayColumn implements FeatureColumn {
+        private final float[] values;
+
+        public FloatArrayColumn(float[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public double get(int row) {
+            return values[row];
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+
+        @Override
+        public FeatureColumn gather(int[] rows) {
+            return gatherFloats(this, rows);
+        }
+    }
+
+    /**
+     * Column read in place from a block of 8-byte doubles in the block's byte order,
+     * typically a mapped region of a binary dataset file
+     */
+    final class DoubleBufferColumn implements FeatureColumn {
+        private final DoubleBuffer values;
+
+        public DoubleBufferColumn(ByteBuffer block) {
+            this.values = block.asDoubleBuffer();
+        }
+
+        @Override
+        public double get(int row) {
+            return values.get(row);
+        }
+
+        @Override
+        public int size() {
+            return values.limit();
+        }
+
+        @Override
+        public boolean isOnHeap() {
+            return !values.isDirect();
+        }
+    }
+
+    /**
+     * Column read in place from a block of 4-byte floats, widened on read
+     */
+    final class FloatBufferColumn implements FeatureColumn {
+        private final FloatBuffer values;
+
+        public FloatBufferColumn(ByteBuffer block) {
+            this.values = block.asFloatBuffer();
+        }
+
+        @Override
+        public double get(int row) {
+            return values.get(row);
+        }
+
+        @Override
+        public int size() {
+            return values.limit();
+        }
+
+        @Override
+        public boolean isOnHeap() {
+            return !values.isDirect();
+        }
+
+        @Override
+        public FeatureColumn gather(int[] rows) {
+            return gatherFloats(this, rows);
+        }
+    }
+
+    private static FeatureColumn gatherFloats(FeatureColumn column, int[] rows) {
+        float[] values = new float[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            values[i] = (float) column.get(rows[i]);
+        }
+        return new FloatArrayColumn(values);
+    }
+}
@@ -0,0 +1,59 @@
+package heartdisease.data;
+
+/**
+ * Stable sorting of primitive row indices by a per-row key, without boxing
+ */
+public class IndexSort {
+    private static final int INSERTION_THRESHOLD = 16;
+
+    /**
+     * Sort rows[from, to) ascending by keys.get(row); rows with equal keys keep their order
+     * @param scratch buffer of at least rows.length entries
+     */
+    public static void sort(int[] rows, int from, int to, FeatureColumn keys, int[] scratch) {
+        if (to - from < 2) return;
+        mergeSort(rows, from, to, keys, scratch);
+    }
+
+    public static void sort(int[] rows, double[] keys) {
+        sort(rows, 0, rows.length, FeatureColumn.of(keys), new int[rows.length]);
+    }
+
+    private static void mergeSort(int[] rows, int from, int to, FeatureColumn keys, int[] scratch) {
+        if (to - from <= INSERTION_THRESHOLD) {
+            insertionSort(rows, from, to, keys);
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(rows, from, mid, keys, scratch);
+        mergeSort(rows, mid, to, keys, scratch);
+
+        // Already ordered halves need no merge
+        if (Double.compare(keys.get(rows[mid - 1]), keys.get(rows[mid])) <= 0) return;
+
+        System.arraycopy(rows, from, scratch, from, to - from);
+        int i = from, j = mid, k = from;
+        while (i < mid && j < to) {
+            if (Double.compare(keys.get(scratch[j]), keys.get(scratch[i])) < 0) {
+                rows[k++] = scratch[j++];
+            } else {
+                rows[k++] = scratch[i++];
+            }
+        }
+        while (i < mid) rows[k++] = scratch[i++];
+        while (j < to) rows[k++] = scratch[j++];
+    }
+
+    private static void insertionSort(int[] rows, int from, int to, FeatureColumn keys) {
+        for (int i = from + 1; i < to; i++) {
+            int row = rows[i];
+            double key = keys.get(row);
+            int j = i - 1;
+            while (j >= from && Double.compare(keys.get(rows[j]), key) > 0) {
+                rows[j + 1] = rows[j];
+                j--;
+            }
+            rows[j + 1] = row;
+        }
+    }
+}
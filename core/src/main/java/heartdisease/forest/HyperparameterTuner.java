@@ -0,0 +1,612 @@
+package heartdisease.forest;
+
+import heartdisease.data.DataLoader;
+import heartdisease.data.Dataset;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+public class HyperparameterTuner {
+    
+    public enum Metric {
+        ACCURACY,
+        F1_SCORE,
+        PRECISION,
+        RECALL
+    }
+    
+    /**
+     * How a configuration's generalization is estimated
+     */
+    public enum Validation {
+        K_FOLD,      // retrain on k-1 folds and score the held-out fold, k times
+        OUT_OF_BAG   // fit once on the whole dataset and score each row with the trees that never saw it
+    }
+    
+    public static class TuningResult {
+        private final int numTrees;
+        private final Integer maxDepth;
+        private final int minSamplesSplit;
+        private final int maxFeatures;
+        private final double bestScore;
+        private final double meanScore;
+        private final double stdScore;
+        private final Metric metric;
+        
+        public TuningResult(int numTrees, Integer maxDepth, int minSamplesSplit, 
+                           int maxFeatures, double bestScore, double meanScore, 
+                           double stdScore, Metric metric) {
+            this.numTrees = numTrees;
+            this.maxDepth = maxDepth;
+            this.minSamplesSplit = minSamplesSplit;
+            this.maxFeatures = maxFeatures;
+            this.bestScore = bestScore;
+            this.meanScore = meanScore;
+            this.stdScore = stdScore;
+            this.metric = metric;
+        }
+        
+        public int getNumTrees() { return numTrees; }
+        public Integer getMaxDepth() { return maxDepth; }
+        public int getMinSamplesSplit() { return minSamplesSplit; }
+        public int getMaxFeatures() { return maxFeatures; }
+        public double getBestScore() { return bestScore; }
+        public double getMeanScore() { return meanScore; }
+        public double getStdScore() { return stdScore; }
+        public Metric getMetric() { return metric; }
+        
+        @Override
+        public String toString() {
+            return String.format(
+                "Best Hyperparameters (optimizing for %s):\n" +
+                "  numTrees: %d\n" +
+                "  maxDepth: %s\n" +
+                "  minSamplesSplit: %d\n" +
+                "  maxFeatures: %d\n" +
+                "  Best %s: %.4f (mean: %.4f, std: %.4f)",
+                metric.name(),
+                numTrees,
+                maxDepth == null ? "unlimited" : String.valueOf(maxDepth),
+                minSamplesSplit,
+                maxFeatures,
+                metric.name(),
+                bestScore,
+                meanScore,
+                stdScore
+            );
+        }
+    }
+    
+    public static class ParameterGrid {
+        private final int[] numTreesValues;
+        private final Integer[] maxDepthValues;
+        private final int[] minSamplesSplitValues;
+        private final int[] maxFeaturesValues;
+        
+        public ParameterGrid(int[] numTreesValues, Integer[] maxDepthValues,
+                           int[] minSamplesSplitValues, int[] maxFeaturesValues) {
+            this.numTreesValues = numTreesValues;
+            this.maxDepthValues = maxDepthValues;
+            this.minSamplesSplitValues = minSamplesSplitValues;
+            this.maxFeaturesValues = maxFeaturesValues;
+        }
+        
+        public int[] getNumTreesValues() { return numTreesValues; }
+        public Integer[] getMaxDepthValues() { return maxDepthValues; }
+        public int[] getMinSamplesSplitValues() { return minSamplesSplitValues; }
+        public int[] getMaxFeaturesValues() { return maxFeaturesValues; }
+        
+        public int getTotalCombinations() {
+            return numTreesValues.length * maxDepthValues.length * 
+                   minSamplesSplitValues.length * maxFeaturesValues.length;
+        }
+        
+        /**
+         * Tree-shape settings in search order (maxDepth outermost, maxFeatures innermost).
+         * numTrees is not part of them: one forest per setting is grown through every numTrees value.
+         */
+        List<TreeSettings> treeSettings() {
+            List<TreeSettings> settings = new ArrayList<>();
+            for (Integer maxDepth : maxDepthValues) {
+                for (int minSamplesSplit : minSamplesSplitValues) {
+                    for (int maxFeatures : maxFeaturesValues) {
+                        settings.add(new TreeSettings(maxDepth, minSamplesSplit, maxFeatures));
+                    }
+                }
+            }
+            return settings;
+        }
+    }
+    
+    /**
+     * Grid values shared by all numTrees values of a combination
+     */
+    private static class TreeSettings {
+        final Integer maxDepth;
+        final int minSamplesSplit;
+        final int maxFeatures;
+        
+        TreeSettings(Integer maxDepth, int minSamplesSplit, int maxFeatures) {
+            this.maxDepth = maxDepth;
+            this.minSamplesSplit = minSamplesSplit;
+            this.maxFeatures = maxFeatures;
+        }
+    }
+    
+    private final int kFolds;
+    private final long seed;
+    private final Metric metric;
+    private final boolean verbose;
+    private final int parallelism;
+    private final Validation validation;
+    
+    /**
+     * Create a hyperparameter tuner
+     * @param kFolds Number of folds for cross-validation (default: 10)
+     * @param seed Random seed for reproducibility
+     * @param metric Metric to optimize for (default: ACCURACY)
+     * @param verbose Whether to print progress (default: true)
+     * @param parallelism Maximum threads evaluating (combination, fold) tasks at once;
+     *                    1 evaluates them one after another (default: 1)
+     * @param validation Cross-validation or out-of-bag estimation; kFolds is unused for
+     *                   out-of-bag (default: K_FOLD)
+     */
+    public HyperparameterTuner(int kFolds, long seed, Metric metric, boolean verbose, int parallelism,
+                               Validation validation) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.kFolds = kFolds;
+        this.seed = seed;
+        this.metric = metric;
+        this.verbose = verbose;
+        this.parallelism = parallelism;
+        this.validation = validation;
+    }
+    
+    public HyperparameterTuner(int kFolds, long seed, Metric metric, boolean verbose, int parallelism) {
+        this(kFolds, seed, metric, verbose, parallelism, Validation.K_FOLD);
+    }
+    
+    public HyperparameterTuner(int kFolds, long seed, Metric metric, boolean verbose) {
+        this(kFolds, seed, metric, verbose, 1);
+    }
+    
+    public HyperparameterTuner(int kFolds, long seed, Metric metric) {
+        this(kFolds, seed, metric, true);
+    }
+    
+    public HyperparameterTuner(int kFolds, long seed) {
+        this(kFolds, seed, Metric.ACCURACY, true);
+    }
+    
+    public HyperparameterTuner() {
+        this(10, 42, Metric.ACCURACY, true);
+    }
+    
+    /**
+     * Perform grid search with K-fold cross-validation
+     * @param dataset Full dataset (will be split into folds)
+     * @param grid Parameter grid to search
+     * @return TuningResult with best hyperparameters
+     */
+    public TuningResult tune(Dataset dataset, ParameterGrid grid) {
+        if (verbose) {
+            System.out.println("\n=== Starting Hyperparameter Tuning ===");
+            System.out.println("Metric: " + metric.name());
+            System.out.println(describeValidation());
+            System.out.println("Total combinations to test: " + grid.getTotalCombinations());
+            System.out.println();
+        }
+        
+        List<DataLoader.DataSplit> folds = createFolds(dataset);
+        List<TreeSettings> settings = grid.treeSettings();
+        int[] numTreesValues = grid.getNumTreesValues();
+        
+        double[][][] scores = evaluate(settings, null, numTreesValues, folds);
+        TuningResult bestResult = selectBest(settings, numTreesValues, scores);
+        
+        if (verbose) {
+            System.out.println("\n=== Hyperparameter Tuning Complete ===");
+            System.out.println(bestResult);
+        }
+        
+        return bestResult;
+    }
+    
+    /**
+     * Successive halving over the grid: every tree setting is first scored with small
+     * forests of minTrees trees, the best 1/eta of them are kept and re-scored with eta
+     * times more trees, and so on until one setting is left or the budget reaches the
+     * largest numTrees value. The survivors are then searched over every numTrees value
+     * exactly as tune does. Each (setting, fold) forest is kept from rung to rung and only
+     * grown, so a survivor never retrains the trees it already has.
+     * @param dataset Full dataset (will be split into folds)
+     * @param grid Parameter grid to search
+     * @param minTrees Forest size of the first rung
+     * @param eta Reduction factor between rungs (at least 2)
+     * @return TuningResult with best hyperparameters
+     */
+    public TuningResult tuneSuccessiveHalving(Dataset dataset, ParameterGrid grid, int minTrees, int eta) {
+        validateBudget(grid, minTrees, eta);
+        if (verbose) {
+            System.out.println("\n=== Starting Successive Halving ===");
+            System.out.println("Metric: " + metric.name());
+            System.out.println(describeValidation());
+            System.out.println("Settings in first rung: " + grid.treeSettings().size());
+            System.out.println();
+        }
+        
+        List<DataLoader.DataSplit> folds = createFolds(dataset);
+        TuningResult bestResult = successiveHalving(grid.treeSettings(), grid.getNumTreesValues(), folds, minTrees, eta);
+        
+        if (verbose) {
+            System.out.println("\n=== Hyperparameter Tuning Complete ===");
+            System.out.println(bestResult);
+        }
+        
+        return bestResult;
+    }
+    
+    /**
+     * Hyperband: several successive-halving brackets trading the number of sampled
+     * settings against the forest size they start from, from many settings on minTrees
+     * trees down to a few settings on the largest forest. Settings for each bracket are
+     * drawn with the tuner's seed. The best bracket result is returned.
+     */
+    public TuningResult tuneHyperband(Dataset dataset, ParameterGrid grid, int minTrees, int eta) {
+        validateBudget(grid, minTrees, eta);
+        List<TreeSettings> allSettings = grid.treeSettings();
+        int[] numTreesValues = grid.getNumTreesValues();
+        int maxTrees = Arrays.stream(numTreesValues).max().getAsInt();
+        int maxRung = (int) Math.floor(Math.log((double) maxTrees / minTrees) / Math.log(eta) + 1e-9);
+        
+        if (verbose) {
+            System.out.println("\n=== Starting Hyperband ===");
+            System.out.println("Metric: " + metric.name());
+            System.out.println(describeValidation());
+            System.out.println("Brackets: " + (maxRung + 1));
+            System.out.println();
+        }
+        
+        List<DataLoader.DataSplit> folds = createFolds(dataset);
+        Random sampler = new Random(seed);
+        TuningResult bestResult = null;
+        
+        for (int s = maxRung; s >= 0; s--) {
+            int numSettings = (int) Math.min(allSettings.size(),
+                Math.ceil((maxRung + 1.0) / (s + 1.0) * Math.pow(eta, s)));
+            int startTrees = Math.max(minTrees, (int) (maxTrees / Math.pow(eta, s)));
+            
+            // Sample without replacement, keeping grid order among the sampled settings
+            List<Integer> picks = new ArrayList<>();
+            for (int i = 0; i < allSettings.size(); i++) {
+                picks.add(i);
+            }
+            Collections.shuffle(picks, sampler);
+            picks = new ArrayList<>(picks.subList(0, numSettings));
+            Collections.sort(picks);
+            List<TreeSettings> bracket = new ArrayList<>();
+            for (int i : picks) {
+                bracket.add(allSettings.get(i));
+            }
+            
+            if (verbose) {
+                System.out.printf("Bracket %d: %d settings starting at %d trees\n", maxRung - s, numSettings, startTrees);
+            }
+            TuningResult result = successiveHalving(bracket, numTreesValues, folds, startTrees, eta);
+            if (bestResult == null || result.getMeanScore() > bestResult.getMeanScore()) {
+                bestResult = result;
+            }
+        }
+        
+        if (verbose) {
+            System.out.println("\n=== Hyperparameter Tuning Complete ===");
+            System.out.println(bestResult);
+        }
+        
+        return bestResult;
+    }
+    
+    private void validateBudget(ParameterGrid grid, int minTrees, int eta) {
+        if (eta < 2) {
+            throw new IllegalArgumentException("Reduction factor (eta) must be at least 2");
+        }
+        if (minTrees < 1) {
+            throw new IllegalArgumentException("Minimum number of trees must be at least 1");
+        }
+        if (grid.getNumTreesValues().length == 0) {
+            throw new IllegalArgumentException("Parameter grid must contain at least one numTrees value");
+        }
+    }
+    
+    private TuningResult successiveHalving(List<TreeSettings> candidates, int[] numTreesValues,
+                                           List<DataLoader.DataSplit> folds, int startTrees, int eta) {
+        int maxTrees = Arrays.stream(numTreesValues).max().getAsInt();
+        int budget = startTrees;
+        RandomForest[][] forests = new RandomForest[candidates.size()][folds.size()];
+        
+        while (candidates.size() > 1 && budget < maxTrees) {
+            double[][][] scores = evaluate(candidates, forests, new int[]{budget}, folds);
+            double[] meanScores = new double[candidates.size()];
+            Integer[] ranking = new Integer[candidates.size()];
+            for (int c = 0; c < candidates.size(); c++) {
+                double[] foldScores = new double[folds.size()];
+                for (int f = 0; f < folds.size(); f++) {
+                    foldScores[f] = scores[c][f][0];
+                }
+                meanScores[c] = Arrays.stream(foldScores).average().orElse(0.0);
+                ranking[c] = c;
+            }
+            // Best first; the stable sort keeps grid order among equal scores
+            Arrays.sort(ranking, (x, y) -> Double.compare(meanScores[y], meanScores[x]));
+            
+            int keep = Math.max(1, candidates.size() / eta);
+            Integer[] kept = Arrays.copyOf(ranking, keep);
+            Arrays.sort(kept);
+            List<TreeSettings> survivors = new ArrayList<>();
+            RandomForest[][] survivorForests = new RandomForest[keep][];
+            for (int i = 0; i < keep; i++) {
+                survivors.add(candidates.get(kept[i]));
+                survivorForests[i] = forests[kept[i]];
+            }
+            
+            if (verbose) {
+                System.out.printf("Rung with %d trees: kept %d of %d settings (best %s=%.4f)\n",
+                    budget, keep, candidates.size(), metric.name(), meanScores[ranking[0]]);
+            }
+            candidates = survivors;
+            forests = survivorForests;
+            budget = (int) Math.min((long) budget * eta, maxTrees);
+        }
+        
+        double[][][] scores = evaluate(candidates, forests, numTreesValues, folds);
+        return selectBest(candidates, numTreesValues, scores);
+    }
+    
+    /**
+     * scores[setting][fold][numTrees index]; every forest is grown once per (setting, fold)
+     * @param forests Forests to continue from, per [setting][fold]; empty slots are filled
+     *                with the forests trained here. null discards the forests after scoring.
+     */
+    private double[][][] evaluate(List<TreeSettings> settings, RandomForest[][] forests, int[] numTreesValues,
+                                  List<DataLoader.DataSplit> folds) {
+        return parallelism > 1
+            ? evaluateInParallel(settings, forests, numTreesValues, folds)
+            : evaluateSequentially(settings, forests, numTreesValues, folds);
+    }
+    
+    /**
+     * Reduce fold scores in grid order (numTrees outermost), so ties resolve as in a
+     * plain grid scan and the outcome does not depend on the thread count
+     */
+    private TuningResult selectBest(List<TreeSettings> settings, int[] numTreesValues, double[][][] scores) {
+        TuningResult bestResult = null;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        int numFolds = scores.length > 0 ? scores[0].length : 0;
+        
+        for (int t = 0; t < numTreesValues.length; t++) {
+            int numTrees = numTreesValues[t];
+            for (int c = 0; c < settings.size(); c++) {
+                TreeSettings setting = settings.get(c);
+                double[] foldScores = new double[numFolds];
+                for (int f = 0; f < numFolds; f++) {
+                    foldScores[f] = scores[c][f][t];
+                }
+                
+                // Calculate mean and std across folds
+                double meanScore = Arrays.stream(foldScores)
+                    .average()
+                    .orElse(0.0);
+                double stdScore = calculateStd(foldScores, meanScore);
+                
+                // Update best result if this is better
+                if (meanScore > bestScore) {
+                    bestScore = meanScore;
+                    bestResult = new TuningResult(
+                        numTrees, setting.maxDepth, setting.minSamplesSplit, setting.maxFeatures,
+                        bestScore, meanScore, stdScore, metric
+                    );
+                    
+                    if (verbose) {
+                        System.out.printf("FOUND A NEW BESTTTTT! %s=%.4f (std=%.4f) - numTrees=%d, maxDepth=%s, minSamplesSplit=%d, maxFeatures=%d\n",
+                            metric.name(), meanScore, stdScore,
+                            numTrees, setting.maxDepth == null ? "unlimited" : setting.maxDepth,
+                            setting.minSamplesSplit, setting.maxFeatures);
+                    }
+                }
+            }
+        }
+        return bestResult;
+    }
+    
+    /**
+     * K-fold splits, or for out-of-bag validation a single "fold" training on the
+     * whole dataset (its test set is the same dataset, scored out-of-bag).
+     * The full dataset is sorted once up front: every fold's training set then filters
+     * its sorted orders from it in linear time, and keeps them for the whole grid.
+     */
+    private List<DataLoader.DataSplit> createFolds(Dataset dataset) {
+        dataset.getSortedOrders();
+        if (validation == Validation.OUT_OF_BAG) {
+            return Collections.singletonList(new DataLoader.DataSplit(dataset, dataset));
+        }
+        return DataLoader.kFoldSplit(dataset, kFolds, seed);
+    }
+    
+    private String describeValidation() {
+        return validation == Validation.OUT_OF_BAG ? "Validation: out-of-bag" : "K-folds: " + kFolds;
+    }
+    
+    /**
+     * Grow one forest on the fold's training set through the numTrees values in
+     * ascending order (warm start), scoring the validation set at each size. A forest
+     * already larger than a value is scored on its first trees, which are the trees a
+     * forest of that size would have.
+     * @param forests The fold's slot is continued from if set and holds the grown forest
+     *                afterwards; null trains a fresh forest that is then dropped
+     * @return score per numTrees value, aligned with numTreesValues
+     */
+    private double[] evaluateFold(TreeSettings setting, RandomForest[] forests, int foldIndex,
+                                  int[] numTreesValues, DataLoader.DataSplit fold) {
+        Integer[] order = new Integer[numTreesValues.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingInt(i -> numTreesValues[i]));
+        
+        RandomForest rf = forests != null ? forests[foldIndex] : null;
+        if (rf == null) {
+            rf = new RandomForest(
+                0, 
+                setting.maxDepth == null ? Integer.MAX_VALUE : setting.maxDepth,
+                setting.minSamplesSplit, 
+                setting.maxFeatures, 
+                seed
+            );
+        }
+        
+        double[] scores = new double[numTreesValues.length];
+        for (int i : order) {
+            RandomForest scored;
+            if (numTreesValues[i] >= rf.getTrees().size()) {
+                rf.grow(fold.getTrainSet(), numTreesValues[i]);
+                scored = rf;
+            } else {
+                scored = rf.firstTrees(numTreesValues[i]);
+            }
+            scores[i] = validation == Validation.OUT_OF_BAG
+                ? evaluateOutOfBag(scored, fold.getTrainSet(), metric)
+                : evaluateModel(scored, fold.getTestSet(), metric);
+        }
+        if (forests != null) {
+            forests[foldIndex] = rf;
+        }
+        return scores;
+    }
+    
+    private double[][][] evaluateSequentially(List<TreeSettings> settings, RandomForest[][] forests,
+                                              int[] numTreesValues, List<DataLoader.DataSplit> folds) {
+        double[][][] scores = new double[settings.size()][folds.size()][];
+        int combinationsDone = 0;
+        for (int c = 0; c < settings.size(); c++) {
+            for (int f = 0; f < folds.size(); f++) {
+                scores[c][f] = evaluateFold(settings.get(c), forests != null ? forests[c] : null, f,
+                    numTreesValues, folds.get(f));
+            }
+            combinationsDone += numTreesValues.length;
+            reportProgress(combinationsDone - numTreesValues.length, combinationsDone,
+                settings.size() * numTreesValues.length);
+        }
+        return scores;
+    }
+    
+    /**
+     * Evaluate every (setting, fold) pair on a work-stealing pool of at most
+     * parallelism threads. The forests' own parallel tree training runs inside the
+     * same pool, so the bound holds for the whole search.
+     */
+    private double[][][] evaluateInParallel(List<TreeSettings> settings, RandomForest[][] forests,
+                                            int[] numTreesValues, List<DataLoader.DataSplit> folds) {
+        int numFolds = folds.size();
+        int totalCombinations = settings.size() * numTreesValues.length;
+        double[][][] scores = new double[settings.size()][numFolds][];
+        AtomicInteger[] foldsRemaining = new AtomicInteger[settings.size()];
+        for (int c = 0; c < foldsRemaining.length; c++) {
+            foldsRemaining[c] = new AtomicInteger(numFolds);
+        }
+        AtomicInteger combinationsDone = new AtomicInteger();
+        
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.submit(() -> IntStream.range(0, settings.size() * numFolds).parallel().forEach(task -> {
+                int c = task / numFolds;
+                int f = task % numFolds;
+                scores[c][f] = evaluateFold(settings.get(c), forests != null ? forests[c] : null, f,
+                    numTreesValues, folds.get(f));
+                if (foldsRemaining[c].decrementAndGet() == 0) {
+                    int done = combinationsDone.addAndGet(numTreesValues.length);
+                    reportProgress(done - numTreesValues.length, done, totalCombinations);
+                }
+            })).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Hyperparameter tuning was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Hyperparameter tuning failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        return scores;
+    }
+    
+    /**
+     * Print progress each time the count passes a multiple of 10 combinations;
+     * safe to call from worker threads
+     */
+    private void reportProgress(int previousCount, int combinationCount, int totalCombinations) {
+        if (verbose && combinationCount / 10 > previousCount / 10) {
+            synchronized (System.out) {
+                System.out.printf("Progress: %d/%d combinations tested (%.1f%%)\n",
+                    combinationCount, totalCombinations,
+                    100.0 * combinationCount / totalCombinations);
+            }
+        }
+    }
+    
+    /**
+     * Evaluate model on dataset using specified metric
+     */
+    private double evaluateModel(RandomForest model, Dataset dataset, Metric metric) {
+        int[] predictions = model.predict(dataset.getFeatures());
+        int[] actual = new int[dataset.getNumSamples()];
+        for (int i = 0; i < dataset.getNumSamples(); i++) {
+            actual[i] = dataset.getLabel(i);
+        }
+        return computeMetric(predictions, actual, metric);
+    }
+    
+    /**
+     * Evaluate model on its own training set from out-of-bag votes
+     */
+    private double evaluateOutOfBag(RandomForest model, Dataset trainSet, Metric metric) {
+        RandomForest.OutOfBagPrediction oob = model.predictOutOfBag(trainSet);
+        return computeMetric(oob.getPredictions(), oob.getActual(), metric);
+    }
+    
+    private double computeMetric(int[] predictions, int[] actual, Metric metric) {
+        switch (metric) {
+            case ACCURACY:
+                return Metrics.accuracy(predictions, actual);
+            case F1_SCORE:
+                return Metrics.f1Score(predictions, actual);
+            case PRECISION:
+                return Metrics.precision(predictions, actual);
+            case RECALL:
+                return Metrics.recall(predictions, actual);
+            default:
+                return Metrics.accuracy(predictions, actual);
+        }
+    }
+    
+    /**
+     * Calculate standard deviation
+     */
+    private double calculateStd(double[] values, double mean) {
+        if (values.length <= 1) {
+            return 0.0;
+        }
+        
+        double sumSquaredDiff = 0.0;
+        for (double value : values) {
+            double diff = value - mean;
+            sumSquaredDiff += diff * diff;
+        }
+        
+        return Math.sqrt(sumSquaredDiff / values.length);
+    }
+}
+
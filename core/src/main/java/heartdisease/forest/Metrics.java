@@ -1,3 +1,5 @@
+package heartdisease.forest;
+
 /**
  * Utility class for calculating evaluation metrics for binary classification
  */
@@ -0,0 +1,210 @@
+package heartdisease.forest;
+
+import heartdisease.tree.CompiledTree;
+import heartdisease.tree.DecisionTree;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary file format for a fitted RandomForest, read back by memory-mapping the file
+ * and bulk-copying the node arrays, so a scoring process starts without retraining.
+ *
+ * Layout (little-endian):
+ *   magic "RFMD", version,
+ *   numTrees, maxDepth, minSamplesSplit, maxFeatures, split engine, build order,
+ *   seed (long), feature count and names (UTF-8 byte length + bytes each),
+ *   zero padding to 8 bytes, node count per tree, then for all trees' nodes concatenated in tree order:
+ *   feature index, next (right child or leaf class) and sample count as ints,
+ *   zero padding to 8 bytes, and the thresholds as doubles.
+ *
+ * Every count and enum ordinal is checked against the file before use, so a corrupt
+ * file fails with an IOException rather than a huge allocation.
+ */
+public class ModelFile {
+    private static final int MAGIC = 0x444d4652; // "RFMD" read little-endian
+    private static final int VERSION = 2;
+
+    public static void write(RandomForest forest, Path path) throws IOException {
+        List<DecisionTree> trees = forest.getTrees();
+        String[] featureNames = forest.getFeatureNames();
+        if (featureNames == null) {
+            throw new IllegalStateException("Forest must be fitted before it is saved");
+        }
+        int numTrees = trees.size();
+
+        byte[][] encodedNames = new byte[featureNames.length][];
+        int headerSize = 44;
+        for (int i = 0; i < featureNames.length; i++) {
+            encodedNames[i] = featureNames[i].getBytes(StandardCharsets.UTF_8);
+            headerSize += 4 + encodedNames[i].length;
+        }
+        headerSize = align(headerSize);
+
+        int totalNodes = 0;
+        for (DecisionTree tree : trees) {
+            totalNodes += tree.getCompiled().getNumNodes();
+        }
+        long nodeBytes = align(4L * numTrees + 12L * totalNodes) + 8L * totalNodes;
+        if (headerSize + nodeBytes > Integer.MAX_VALUE) {
+            throw new IOException("Model too large for a single model file: " + totalNodes + " nodes");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) (headerSize + nodeBytes)).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION)
+            .putInt(numTrees).putInt(forest.getMaxDepth()).putInt(forest.getMinSamplesSplit())
+            .putInt(forest.getMaxFeatures()).putInt(forest.getSplitEngine().ordinal())
+            .putInt(forest.getBuildOrder().ordinal()).putLong(forest.getSeed())
+            .putInt(featureNames.length);
+        for (byte[] name : encodedNames) {
+            buffer.putInt(name.length).put(name);
+        }
+        buffer.position(headerSize);
+
+        for (DecisionTree tree : trees) {
+            buffer.putInt(tree.getCompiled().getNumNodes());
+        }
+        for (DecisionTree tree : trees) {
+            CompiledTree compiled = tree.getCompiled();
+            for (int node = 0; node < compiled.getNumNodes(); node++) {
+                buffer.putInt(compiled.getFeatureIndex(node));
+            }
+        }
+        for (DecisionTree tree : trees) {
+            CompiledTree compiled = tree.getCompiled();
+            for (int node = 0; node < compiled.getNumNodes(); node++) {
+                buffer.putInt(compiled.getRightChild(node));
+            }
+        }
+        for (DecisionTree tree : trees) {
+            for (int count : tree.getNodeSampleCounts()) {
+                buffer.putInt(count);
+            }
+        }
+        buffer.position(align(buffer.position()));
+        for (DecisionTree tree : trees) {
+            CompiledTree compiled = tree.getCompiled();
+            for (int node = 0; node < compiled.getNumNodes(); node++) {
+                buffer.putDouble(compiled.getThreshold(node));
+            }
+        }
+
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    public static RandomForest read(Path path) throws IOException {
+        MappedByteBuffer file;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        file.order(ByteOrder.LITTLE_ENDIAN);
+
+        try {
+            if (file.getInt() != MAGIC) {
+                throw new IOException(path + " is not a random forest model file");
+            }
+            int version = file.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported model file version " + version + " in " + path);
+            }
+            int numTrees = file.getInt();
+            int maxDepth = file.getInt();
+            int minSamplesSplit = file.getInt();
+            int maxFeatures = file.getInt();
+            DecisionTree.SplitEngine engine = DecisionTree.SplitEngine.values()[
+                ordinal(file, DecisionTree.SplitEngine.values().length, "split engine", path)];
+            DecisionTree.BuildOrder buildOrder = DecisionTree.BuildOrder.values()[
+                ordinal(file, DecisionTree.BuildOrder.values().length, "build order", path)];
+            long seed = file.getLong();
+
+            String[] featureNames = new String[count(file, file.getInt(), 4, "feature", path)];
+            for (int i = 0; i < featureNames.length; i++) {
+                byte[] name = new byte[count(file, file.getInt(), 1, "feature name byte", path)];
+                file.get(name);
+                featureNames[i] = new String(name, StandardCharsets.UTF_8);
+            }
+            file.position(align(file.position()));
+
+            int[] nodeCounts = new int[count(file, numTrees, 4, "tree", path)];
+            file.asIntBuffer().get(nodeCounts);
+            file.position(file.position() + 4 * numTrees);
+            long nodes = 0;
+            for (int count : nodeCounts) {
+                nodes += count(file, count, 0, "node", path);
+            }
+            // Each node takes three ints and a double
+            int totalNodes = count(file, (int) Math.min(nodes, Integer.MAX_VALUE), 20, "node", path);
+
+            // Each node array is one section over all trees; copy every tree's slice out of it
+            IntBuffer ints = file.asIntBuffer();
+            file.position(align(file.position() + 12 * totalNodes));
+            DoubleBuffer doubles = file.asDoubleBuffer();
+
+            RandomForest forest = new RandomForest(numTrees, maxDepth, minSamplesSplit, maxFeatures, seed, engine,
+                buildOrder);
+            List<DecisionTree> trees = new ArrayList<>(numTrees);
+            int offset = 0;
+            for (int count : nodeCounts) {
+                int[] featureIndex = new int[count];
+                int[] next = new int[count];
+                int[] sampleCounts = new int[count];
+                double[] threshold = new double[count];
+                ints.position(offset).get(featureIndex);
+                ints.position(totalNodes + offset).get(next);
+                ints.position(2 * totalNodes + offset).get(sampleCounts);
+                doubles.position(offset).get(threshold);
+
+                CompiledTree compiled = new CompiledTree(featureIndex, threshold, next);
+                trees.add(DecisionTree.fromCompiled(compiled, sampleCounts, maxDepth, minSamplesSplit, maxFeatures, engine));
+                offset += count;
+            }
+            forest.restore(trees, featureNames);
+            return forest;
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt model file " + path, e);
+        }
+    }
+
+    /**
+     * A count read from the file, checked to be non-negative and, when each item takes
+     * bytesEach bytes, to fit in what is left of the file
+     */
+    private static int count(ByteBuffer file, int count, int bytesEach, String what, Path path) throws IOException {
+        if (count < 0 || (bytesEach > 0 && count > file.remaining() / bytesEach)) {
+            throw new IOException("Corrupt model file " + path + ": " + count + " " + what + "s");
+        }
+        return count;
+    }
+
+    private static int ordinal(ByteBuffer file, int numValues, String what, Path path) throws IOException {
+        int ordinal = file.getInt();
+        if (ordinal < 0 || ordinal >= numValues) {
+            throw new IOException("Corrupt model file " + path + ": unknown " + what + " " + ordinal);
+        }
+        return ordinal;
+    }
+
+    private static int align(int offset) {
+        return (offset + 7) & ~7;
+    }
+
+    private static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+}
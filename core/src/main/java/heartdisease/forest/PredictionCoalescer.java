@@ -0,0 +1,227 @@
+package heartdisease.forest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro-batching front end for RandomForest scoring. Concurrent callers submit rows and
+ * get a future; a dispatcher thread gathers everything that arrives within a short
+ * window after the first pending request (or until maxBatchRows rows are waiting),
+ * scores it with one tree-major predictBatch call and completes every caller's future
+ * with its own slice of the votes. Each caller waits at most about one window longer,
+ * in exchange for scoring many rows per pass over the trees.
+ *
+ * Batches are scored on the given executor, so the dispatcher keeps gathering the next
+ * batch while earlier ones are being scored. Rows are checked against the forest's
+ * feature count on submit, so one caller's bad row cannot fail a shared batch; a batch
+ * the executor rejects fails its callers' futures, and the dispatcher carries on.
+ */
+public class PredictionCoalescer implements AutoCloseable {
+    private final RandomForest forest;
+    private final int numFeatures;
+    private final long windowNanos;
+    private final int maxBatchRows;
+    private final Executor executor;
+    private final LinkedBlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+    private final Thread dispatcher;
+    private volatile boolean closed;
+    // Submitted requests whose futures are not yet completed; guarded by this
+    private int outstanding;
+
+    public PredictionCoalescer(RandomForest forest, long windowMicros, int maxBatchRows, Executor executor) {
+        if (windowMicros < 0) {
+            throw new IllegalArgumentException("Batch window must not be negative");
+        }
+        if (maxBatchRows < 1) {
+            throw new IllegalArgumentException("Max batch rows must be at least 1");
+        }
+        if (forest.getFeatureNames() == null) {
+            throw new IllegalArgumentException("Forest must be fitted or loaded before scoring");
+        }
+        this.forest = forest;
+        this.numFeatures = forest.getFeatureNames().length;
+        this.windowNanos = TimeUnit.MICROSECONDS.toNanos(windowMicros);
+        this.maxBatchRows = maxBatchRows;
+        this.executor = executor;
+        this.dispatcher = new Thread(this::dispatch, "prediction-coalescer");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    public PredictionCoalescer(RandomForest forest, long windowMicros, int maxBatchRows) {
+        this(forest, windowMicros, maxBatchRows, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Queue one sample; the future holds a single-sample BatchPrediction
+     */
+    public CompletableFuture<RandomForest.BatchPrediction> submit(double[] features) {
+        return submit(new double[][]{features});
+    }
+
+    /**
+     * Queue several samples to be scored together with other callers' rows. The rows of
+     * one call are never split across batches.
+     * @throws IllegalArgumentException if a row does not have one value per forest feature
+     */
+    public CompletableFuture<RandomForest.BatchPrediction> submit(double[][] features) {
+        for (double[] row : features) {
+            if (row == null || row.length != numFeatures) {
+                throw new IllegalArgumentException("Expected " + numFeatures + " features per row, got "
+                    + (row == null ? "null" : String.valueOf(row.length)));
+            }
+        }
+        Request request = new Request(features);
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("Coalescer is closed");
+            }
+            outstanding++;
+            queue.add(request);
+        }
+        return request.future;
+    }
+
+    /**
+     * Stop accepting rows; requests already queued are still scored
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        dispatcher.interrupt();
+    }
+
+    /**
+     * Wait until every submitted request's future is completed. A future's dependent
+     * actions have run, or been handed to their executors, by the time it counts as done.
+     * @return false if the timeout passed first
+     */
+    public synchronized boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (outstanding > 0) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        return true;
+    }
+
+    private void dispatch() {
+        Request carried = null;
+        while (true) {
+            List<Request> batch = new ArrayList<>();
+            try {
+                Request first = carried != null ? carried : closed ? queue.poll() : queue.take();
+                carried = null;
+                if (first == null) {
+                    // submit and close hold the same lock, so nothing arrives after this check
+                    synchronized (this) {
+                        if (queue.isEmpty()) {
+                            return;
+                        }
+                    }
+                    continue;
+                }
+                batch.add(first);
+                int rows = first.features.length;
+                long deadline = System.nanoTime() + windowNanos;
+                while (rows < maxBatchRows) {
+                    long remaining = deadline - System.nanoTime();
+                    Request next = remaining > 0 && !closed
+                        ? queue.poll(remaining, TimeUnit.NANOSECONDS)
+                        : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    if (rows + next.features.length > maxBatchRows) {
+                        carried = next;
+                        break;
+                    }
+                    batch.add(next);
+                    rows += next.features.length;
+                }
+            } catch (InterruptedException e) {
+                // close() wakes the dispatcher: score what was gathered, then drain without waiting
+            }
+            if (!batch.isEmpty()) {
+                try {
+                    executor.execute(() -> score(batch));
+                } catch (RuntimeException e) {
+                    // e.g. RejectedExecutionException from a shut-down executor
+                    fail(batch, e);
+                }
+            }
+        }
+    }
+
+    private void score(List<Request> requests) {
+        try {
+            int numRows = 0;
+            for (Request request : requests) {
+                numRows += request.features.length;
+            }
+            double[][] features = new double[numRows][];
+            int offset = 0;
+            for (Request request : requests) {
+                System.arraycopy(request.features, 0, features, offset, request.features.length);
+                offset += request.features.length;
+            }
+
+            RandomForest.BatchPrediction scores = forest.predictBatch(features);
+            int[] votes = scores.getPositiveVotes();
+            offset = 0;
+            for (Request request : requests) {
+                int[] slice = new int[request.features.length];
+                System.arraycopy(votes, offset, slice, 0, slice.length);
+                offset += slice.length;
+                finish(request, new RandomForest.BatchPrediction(slice, scores.getNumTrees()), null);
+            }
+        } catch (Throwable e) {
+            fail(requests, e);
+        }
+    }
+
+    private void fail(List<Request> requests, Throwable error) {
+        for (Request request : requests) {
+            finish(request, null, error);
+        }
+    }
+
+    /**
+     * Complete the request's future once, then count it as done
+     */
+    private void finish(Request request, RandomForest.BatchPrediction result, Throwable error) {
+        if (request.finished) {
+            return;
+        }
+        request.finished = true;
+        if (error == null) {
+            request.future.complete(result);
+        } else {
+            request.future.completeExceptionally(error);
+        }
+        synchronized (this) {
+            if (--outstanding == 0) {
+                notifyAll();
+            }
+        }
+    }
+
+    private static class Request {
+        final double[][] features;
+        final CompletableFuture<RandomForest.BatchPrediction> future = new CompletableFuture<>();
+        // Set by the one thread that completes the request
+        boolean finished;
+
+        Request(double[][] features) {
+            this.features = features;
+        }
+    }
+}
@@ -0,0 +1,535 @@
+package heartdisease.forest;
+
+import heartdisease.data.Dataset;
+import heartdisease.data.FeatureColumn;
+import heartdisease.tree.CompiledTree;
+import heartdisease.tree.DecisionTree;
+import heartdisease.tree.FloatCompiledTree;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Random Forest classifier for binary classification on numeric data
+ */
+public class RandomForest {
+    // Samples scored per tree pass in batch prediction; small enough to stay in cache
+    private static final int PREDICTION_BLOCK_SIZE = 256;
+
+    private int numTrees;
+    private final int maxDepth;
+    private final int minSamplesSplit;
+    private final int maxFeatures;
+    private final long seed;
+    private final Random random;
+    private final DecisionTree.SplitEngine splitEngine;
+    private final DecisionTree.BuildOrder buildOrder;
+    private final List<DecisionTree> trees;
+    // Seed of each tree, aligned with trees; its bootstrap sample (and so its out-of-bag
+    // rows) is drawn again from it when needed instead of being kept for every fit
+    private final List<Long> bootstrapSeeds;
+    private int numTrainingSamples;
+    private String[] featureNames;
+
+    /**
+     * @param buildOrder How each tree visits its nodes; PARALLEL also splits single trees
+     *                   across threads, which pays off for forests with few, large trees
+     */
+    public RandomForest(int numTrees, int maxDepth, int minSamplesSplit, int maxFeatures, long seed,
+                        DecisionTree.SplitEngine splitEngine, DecisionTree.BuildOrder buildOrder) {
+        this.numTrees = numTrees;
+        this.maxDepth = maxDepth;
+        this.minSamplesSplit = minSamplesSplit;
+        this.maxFeatures = maxFeatures;
+        this.seed = seed;
+        this.random = new Random(seed);
+        this.splitEngine = splitEngine;
+        this.buildOrder = buildOrder;
+        this.trees = new ArrayList<>();
+        this.bootstrapSeeds = new ArrayList<>();
+    }
+
+    public RandomForest(int numTrees, int maxDepth, int minSamplesSplit, int maxFeatures, long seed,
+                        DecisionTree.SplitEngine splitEngine) {
+        this(numTrees, maxDepth, minSamplesSplit, maxFeatures, seed, splitEngine, DecisionTree.BuildOrder.DEPTH_FIRST);
+    }
+
+    public RandomForest(int numTrees, int maxDepth, int minSamplesSplit, int maxFeatures, long seed) {
+        this(numTrees, maxDepth, minSamplesSplit, maxFeatures, seed, DecisionTree.SplitEngine.PRESORTED);
+    }
+
+    public RandomForest(int numTrees, int maxDepth, int minSamplesSplit, int maxFeatures) {
+        this(numTrees, maxDepth, minSamplesSplit, maxFeatures, 42L);
+    }
+
+    /**
+     * Train the random forest on the given dataset
+     */
+    public void fit(Dataset dataset) {
+        trees.clear();
+        bootstrapSeeds.clear();
+        featureNames = dataset.getFeatureNames();
+        numTrainingSamples = dataset.getNumSamples();
+        addTrees(dataset, numTrees);
+    }
+
+    /**
+     * Save the fitted forest to a binary model file (see ModelFile)
+     */
+    public void save(Path path) throws IOException {
+        ModelFile.write(this, path);
+    }
+
+    /**
+     * Load a forest saved with save, ready to predict. Bootstrap seeds are not stored,
+     * so a loaded forest cannot be scored out-of-bag or grown.
+     */
+    public static RandomForest load(Path path) throws IOException {
+        return ModelFile.read(path);
+    }
+
+    void restore(List<DecisionTree> loadedTrees, String[] loadedFeatureNames) {
+        trees.clear();
+        bootstrapSeeds.clear();
+        trees.addAll(loadedTrees);
+        featureNames = loadedFeatureNames;
+    }
+
+    private void requireTrainingState() {
+        if (bootstrapSeeds.size() != trees.size()) {
+            throw new IllegalStateException("Forest was loaded from a model file and has no training state");
+        }
+    }
+
+    /**
+     * Warm start: grow an already fitted forest to numTrees trees, training only the
+     * new ones. Must be given the dataset the forest was fitted on. Tree seeds continue
+     * the same sequence, so a fresh forest fitted and grown to n trees holds the same
+     * trees as one with the same seed fitted with n trees directly.
+     */
+    public void grow(Dataset dataset, int numTrees) {
+        requireTrainingState();
+        if (numTrees < trees.size()) {
+            throw new IllegalArgumentException("Cannot grow a forest of " + trees.size() + " trees to " + numTrees);
+        }
+        addTrees(dataset, numTrees - trees.size());
+        this.numTrees = numTrees;
+    }
+
+    /**
+     * The forest a fit with count trees would give: its first count trees, with the tree
+     * seed sequence positioned after them so it can be grown further
+     */
+    RandomForest firstTrees(int count) {
+        requireTrainingState();
+        if (count > trees.size()) {
+            throw new IllegalArgumentException("Forest has only " + trees.size() + " trees, not " + count);
+        }
+        RandomForest prefix = new RandomForest(count, maxDepth, minSamplesSplit, maxFeatures, seed,
+            splitEngine, buildOrder);
+        for (int i = 0; i < count; i++) {
+            prefix.random.nextLong();
+        }
+        prefix.trees.addAll(trees.subList(0, count));
+        prefix.bootstrapSeeds.addAll(bootstrapSeeds.subList(0, count));
+        prefix.featureNames = featureNames;
+        prefix.numTrainingSamples = numTrainingSamples;
+        return prefix;
+    }
+
+    private void addTrees(Dataset dataset, int count) {
+        // Pre-generate seeds for reproducibility
+        long[] treeSeeds = new long[count];
+        for (int i = 0; i < count; i++) {
+            treeSeeds[i] = random.nextLong();
+        }
+
+        // Lay out columns and sort (or quantize) them once; every tree then trains on
+        // bootstrap weights over the same dataset instead of a copied sample
+        dataset.getFeatureColumns();
+        DecisionTree.SplitEngine engine = DecisionTree.engineFor(splitEngine, dataset);
+        if (engine == DecisionTree.SplitEngine.PRESORTED) {
+            dataset.getSortedOrders();
+        } else if (engine == DecisionTree.SplitEngine.HISTOGRAM) {
+            dataset.getBins();
+        }
+
+        // Parallel training
+        DecisionTree[] trainedTrees = new DecisionTree[count];
+        IntStream.range(0, count).parallel().forEach(i -> {
+            long seed = treeSeeds[i];
+            Random treeRandom = new Random(seed);
+
+            // Create bootstrap sample as per-row draw counts
+            int[] weights = drawBootstrapWeights(dataset.getNumSamples(), treeRandom);
+
+            // Train decision tree
+            DecisionTree tree = new DecisionTree(maxDepth, minSamplesSplit, maxFeatures, treeRandom, splitEngine, buildOrder);
+            tree.fit(dataset, weights);
+
+            trainedTrees[i] = tree;
+        });
+
+        trees.addAll(Arrays.asList(trainedTrees));
+        for (long treeSeed : treeSeeds) {
+            bootstrapSeeds.add(treeSeed);
+        }
+    }
+
+    /**
+     * Predict the class for a single sample
+     */
+    public int predict(double[] features) {
+        int[] votes = new int[2]; // Binary classification
+
+        for (DecisionTree tree : trees) {
+            int prediction = tree.predict(features);
+            votes[prediction]++;
+        }
+
+        return votes[0] > votes[1] ? 0 : 1;
+    }
+
+    /**
+     * Predict classes for multiple samples
+     */
+    public int[] predict(double[][] features) {
+        return predictBatch(features).getPredictions();
+    }
+
+    /**
+     * Score many samples in one pass: samples are processed in blocks, each block walks
+     * the forest tree by tree so one tree stays hot across the block, and blocks run
+     * in parallel. Classes and probabilities match predict and predictProbability.
+     */
+    public BatchPrediction predictBatch(double[][] features) {
+        CompiledTree[] compiled = new CompiledTree[trees.size()];
+        for (int t = 0; t < compiled.length; t++) {
+            compiled[t] = trees.get(t).getCompiled();
+        }
+        return voteTreeMajor(compiled.length, features.length, (t, i) -> compiled[t].predict(features[i]) == 1);
+    }
+
+    /**
+     * Batch scoring of float32 features with the trees' float-threshold copies (see
+     * FloatCompiledTree). Same blocking as predictBatch; for inputs that are exact
+     * floats the votes are identical to the double path.
+     */
+    public BatchPrediction predictBatch(float[][] features) {
+        FloatCompiledTree[] compiled = new FloatCompiledTree[trees.size()];
+        for (int t = 0; t < compiled.length; t++) {
+            compiled[t] = trees.get(t).getCompiledFloat32();
+        }
+        return voteTreeMajor(compiled.length, features.length, (t, i) -> compiled[t].predict(features[i]) == 1);
+    }
+
+    /**
+     * The blocked, tree-major vote loop shared by the predictBatch overloads
+     */
+    private static BatchPrediction voteTreeMajor(int numTrees, int numSamples, TreeVote vote) {
+        int[] positiveVotes = new int[numSamples];
+        int numBlocks = (numSamples + PREDICTION_BLOCK_SIZE - 1) / PREDICTION_BLOCK_SIZE;
+
+        IntStream blocks = IntStream.range(0, numBlocks);
+        if (numBlocks > 1) {
+            blocks = blocks.parallel();
+        }
+        blocks.forEach(block -> {
+            int from = block * PREDICTION_BLOCK_SIZE;
+            int to = Math.min(from + PREDICTION_BLOCK_SIZE, numSamples);
+            for (int t = 0; t < numTrees; t++) {
+                for (int i = from; i < to; i++) {
+                    if (vote.isPositive(t, i)) {
+                        positiveVotes[i]++;
+                    }
+                }
+            }
+        });
+
+        return new BatchPrediction(positiveVotes, numTrees);
+    }
+
+    /**
+     * Predict probability for a single sample
+     * for binary classification
+     */
+    public double predictProbability(double[] features) {
+        int positiveVotes = 0;
+
+        for (DecisionTree tree : trees) {
+            if (tree.predict(features) == 1) {
+                positiveVotes++;
+            }
+        }
+
+        // Apply Laplace smoothing for binary classification
+        return (positiveVotes + 1.0) / (trees.size() + 2.0);
+    }
+
+    /**
+     * Calculate accuracy on a dataset
+     */
+    public double score(Dataset dataset) {
+        int[] predictions = predict(dataset.getFeatures());
+        int correct = 0;
+        for (int i = 0; i < dataset.getNumSamples(); i++) {
+            if (predictions[i] == dataset.getLabel(i)) {
+                correct++;
+            }
+        }
+        return (double) correct / dataset.getNumSamples();
+    }
+
+    /**
+     * Out-of-bag predictions for the training set: every row is voted on only by the
+     * trees whose bootstrap sample left it out, giving a generalization estimate
+     * without a held-out set. Must be given the dataset the forest was fitted on.
+     * Each tree's bootstrap sample is drawn again from its seed.
+     */
+    public OutOfBagPrediction predictOutOfBag(Dataset dataset) {
+        requireTrainingState();
+        if (dataset.getNumSamples() != numTrainingSamples) {
+            throw new IllegalArgumentException("Forest was fitted on " + numTrainingSamples
+                + " samples, not " + dataset.getNumSamples());
+        }
+        int numSamples = dataset.getNumSamples();
+        int[] positiveVotes = new int[numSamples];
+        int[] votingTrees = new int[numSamples];
+        FeatureColumn[] columns = dataset.getFeatureColumns();
+
+        for (int t = 0; t < trees.size(); t++) {
+            CompiledTree tree = trees.get(t).getCompiled();
+            int[] weights = drawBootstrapWeights(numSamples, new Random(bootstrapSeeds.get(t)));
+            for (int row = 0; row < numSamples; row++) {
+                if (weights[row] != 0) continue;
+                votingTrees[row]++;
+                if (tree.predict(columns, row) == 1) {
+                    positiveVotes[row]++;
+                }
+            }
+        }
+
+        return new OutOfBagPrediction(positiveVotes, votingTrees, dataset.getLabels());
+    }
+
+    /**
+     * Out-of-bag accuracy on the training set, see predictOutOfBag
+     */
+    public double outOfBagScore(Dataset dataset) {
+        OutOfBagPrediction oob = predictOutOfBag(dataset);
+        return Metrics.accuracy(oob.getPredictions(), oob.getActual());
+    }
+
+    /**
+     * Rows of the training set not drawn into the given tree's bootstrap sample
+     */
+    public int[] getOutOfBagIndices(int treeIndex) {
+        requireTrainingState();
+        return outOfBag(drawBootstrapWeights(numTrainingSamples, new Random(bootstrapSeeds.get(treeIndex))));
+    }
+
+    /**
+     * Create a bootstrap sample (sampling with replacement) as the number of times
+     * each row was drawn
+     */
+    private int[] drawBootstrapWeights(int numSamples, Random rng) {
+        int[] weights = new int[numSamples];
+
+        for (int i = 0; i < numSamples; i++) {
+            weights[rng.nextInt(numSamples)]++;
+        }
+
+        return weights;
+    }
+
+    private static int[] outOfBag(int[] weights) {
+        int numOutOfBag = 0;
+        for (int weight : weights) {
+            if (weight == 0) numOutOfBag++;
+        }
+
+        int[] rows = new int[numOutOfBag];
+        int next = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] == 0) {
+                rows[next++] = i;
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Whether tree t votes for the positive class on sample i
+     */
+    private interface TreeVote {
+        boolean isPositive(int tree, int sample);
+    }
+
+    /**
+     * Votes, classes and probabilities for a batch of samples
+     */
+    public static class BatchPrediction {
+        private final int[] positiveVotes;
+        private final int numTrees;
+
+        public BatchPrediction(int[] positiveVotes, int numTrees) {
+            this.positiveVotes = positiveVotes;
+            this.numTrees = numTrees;
+        }
+
+        public int getNumSamples() {
+            return positiveVotes.length;
+        }
+
+        /**
+         * Number of trees voting for class 1, per sample
+         */
+        public int[] getPositiveVotes() {
+            return positiveVotes;
+        }
+
+        public int getNumTrees() {
+            return numTrees;
+        }
+
+        /**
+         * Majority vote; ties go to class 1 as in predict
+         */
+        public int[] getPredictions() {
+            int[] predictions = new int[positiveVotes.length];
+            for (int i = 0; i < predictions.length; i++) {
+                int negativeVotes = numTrees - positiveVotes[i];
+                predictions[i] = negativeVotes > positiveVotes[i] ? 0 : 1;
+            }
+            return predictions;
+        }
+
+        /**
+         * Laplace-smoothed share of positive votes, as in predictProbability
+         */
+        public double[] getProbabilities() {
+            double[] probabilities = new double[positiveVotes.length];
+            for (int i = 0; i < probabilities.length; i++) {
+                probabilities[i] = (positiveVotes[i] + 1.0) / (numTrees + 2.0);
+            }
+            return probabilities;
+        }
+    }
+
+    /**
+     * Out-of-bag votes for a training set. Rows that were in every tree's bootstrap
+     * sample get no votes and are left out of the predictions and labels, which are
+     * therefore aligned with each other and ready for Metrics.
+     */
+    public static class OutOfBagPrediction {
+        private final int[] positiveVotes;
+        private final int[] votingTrees;
+        private final int[] coveredRows;
+        private final int[] predictions;
+        private final int[] actual;
+
+        public OutOfBagPrediction(int[] positiveVotes, int[] votingTrees, int[] labels) {
+            this.positiveVotes = positiveVotes;
+            this.votingTrees = votingTrees;
+
+            int numCovered = 0;
+            for (int count : votingTrees) {
+                if (count > 0) numCovered++;
+            }
+            this.coveredRows = new int[numCovered];
+            this.predictions = new int[numCovered];
+            this.actual = new int[numCovered];
+
+            int next = 0;
+            for (int row = 0; row < votingTrees.length; row++) {
+                if (votingTrees[row] == 0) continue;
+                int negativeVotes = votingTrees[row] - positiveVotes[row];
+                coveredRows[next] = row;
+                predictions[next] = negativeVotes > positiveVotes[row] ? 0 : 1;
+                actual[next] = labels[row];
+                next++;
+            }
+        }
+
+        /**
+         * Training rows with at least one out-of-bag tree
+         */
+        public int[] getCoveredRows() {
+            return coveredRows;
+        }
+
+        /**
+         * Majority out-of-bag vote per covered row; ties go to class 1 as in predict
+         */
+        public int[] getPredictions() {
+            return predictions;
+        }
+
+        /**
+         * Labels of the covered rows
+         */
+        public int[] getActual() {
+            return actual;
+        }
+
+        /**
+         * Laplace-smoothed share of positive out-of-bag votes per covered row
+         */
+        public double[] getProbabilities() {
+            double[] probabilities = new double[coveredRows.length];
+            for (int i = 0; i < coveredRows.length; i++) {
+                int row = coveredRows[i];
+                probabilities[i] = (positiveVotes[row] + 1.0) / (votingTrees[row] + 2.0);
+            }
+            return probabilities;
+        }
+
+        /**
+         * Number of out-of-bag trees voting on each training row
+         */
+        public int[] getVotingTrees() {
+            return votingTrees;
+        }
+    }
+
+    public int getNumTrees() {
+        return numTrees;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public int getMinSamplesSplit() {
+        return minSamplesSplit;
+    }
+
+    public int getMaxFeatures() {
+        return maxFeatures;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Names of the features the forest was fitted on, or null before fitting
+     */
+    public String[] getFeatureNames() {
+        return featureNames;
+    }
+
+    public DecisionTree.BuildOrder getBuildOrder() {
+        return buildOrder;
+    }
+
+    public DecisionTree.SplitEngine getSplitEngine() {
+        return splitEngine;
+    }
+
+    public List<DecisionTree> getTrees() {
+        return trees;
+    }
+}
@@ -0,0 +1,224 @@
+package heartdisease.tree;
+
+import heartdisease.data.Dataset;
+import heartdisease.data.FeatureColumn;
+
+import java.util.Arrays;
+
+/**
+ * Shared state and entropy math for the split finders: a row buffer partitioned in
+ * place as nodes split, and reusable int[] class-count buffers.
+ * The depth-first finders implement SplitFinder on top of it; LevelWiseTreeMatrix
+ * scores whole levels instead.
+ *
+ * A tree is trained on per-row integer weights over the dataset (a bootstrap sample
+ * is the number of times each row was drawn), so samples are never copied. Only rows
+ * with a positive weight enter the buffer, and every count and size is weighted.
+ */
+public abstract class AbstractTreeMatrix {
+    private static final double LAPLACE_ALPHA = 1.0; // Laplace smoothing parameter
+    private static final double LOG_2 = Math.log(2.0);
+    protected final Dataset dataset;
+    // Feature columns (on or off heap) and labels of the dataset
+    protected final FeatureColumn[] columns;
+    protected final int[] labels;
+    protected final int[] weights;
+    protected final int numClasses;
+    // Rows of the tree (positive weight only); every node owns a [start, end) range of it
+    protected final int[] rows;
+    protected final int[] scratch;
+    protected final double[] bestThresholds;
+    protected final int[] nodeCounts;
+    protected final int[] leftCounts;
+    protected final int[] rightCounts;
+
+    /**
+     * @param weights Multiplicity of each dataset row in the training sample
+     */
+    protected AbstractTreeMatrix(Dataset dataset, int[] weights) {
+        if (weights.length != dataset.getNumSamples()) {
+            throw new IllegalArgumentException("Weights must have one entry per sample");
+        }
+        this.dataset = dataset;
+        this.columns = dataset.getFeatureColumns();
+        this.labels = dataset.getLabels();
+        this.weights = weights;
+        this.numClasses = dataset.getNumClasses();
+
+        int numRows = 0;
+        for (int weight : weights) {
+            if (weight > 0) numRows++;
+        }
+        this.rows = new int[numRows];
+        int next = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] > 0) {
+                rows[next++] = i;
+            }
+        }
+        this.scratch = new int[weights.length];
+        this.bestThresholds = new double[dataset.getNumFeatures()];
+        this.nodeCounts = new int[numClasses];
+        this.leftCounts = new int[numClasses];
+        this.rightCounts = new int[numClasses];
+    }
+
+    /**
+     * A view of the same rows for another thread: the row buffer, sorted state and
+     * scratch space are shared (threads work on disjoint ranges, or only read a
+     * range), while the scan buffers and cached thresholds are the view's own
+     */
+    protected AbstractTreeMatrix(AbstractTreeMatrix parent) {
+        this.dataset = parent.dataset;
+        this.columns = parent.columns;
+        this.labels = parent.labels;
+        this.weights = parent.weights;
+        this.numClasses = parent.numClasses;
+        this.rows = parent.rows;
+        this.scratch = parent.scratch;
+        this.bestThresholds = new double[parent.bestThresholds.length];
+        this.nodeCounts = new int[numClasses];
+        this.leftCounts = new int[numClasses];
+        this.rightCounts = new int[numClasses];
+    }
+
+    protected static double log2(double number) {
+        if (number <= 0.0) {
+            return 0.0;
+        }
+        return Math.log(number) / LOG_2;
+    }
+
+    /**
+     * Fill counts with the weighted label histogram of rows[start, end)
+     * @return total weight of the range
+     */
+    protected int countClasses(int start, int end, int[] counts) {
+        Arrays.fill(counts, 0);
+        int total = 0;
+        for (int i = start; i < end; i++) {
+            int row = rows[i];
+            counts[labels[row]] += weights[row];
+            total += weights[row];
+        }
+        return total;
+    }
+
+    /**
+     * Reset left/right counts for a scan that starts with every row on the right
+     * @return total weight of the node
+     */
+    protected int beginScan(int start, int end) {
+        int total = countClasses(start, end, nodeCounts);
+        System.arraycopy(nodeCounts, 0, rightCounts, 0, numClasses);
+        Arrays.fill(leftCounts, 0);
+        return total;
+    }
+
+    /**
+     * Gain ratio of the split described by the current left/right counts
+     */
+    protected double gainRatio(int leftSize, int rightSize, double parentEntropy) {
+        return gainRatio(leftCounts, rightCounts, nodeCounts, leftSize, rightSize, parentEntropy);
+    }
+
+    /**
+     * Gain ratio of a split with the given left, right and node class counts
+     */
+    protected double gainRatio(int[] left, int[] right, int[] node, int leftSize, int rightSize,
+                               double parentEntropy) {
+        double total = (double) (leftSize + rightSize);
+        double leftEntropy = computeEntropyFromCounts(left, left, leftSize);
+        double rightEntropy = computeEntropyFromCounts(right, node, rightSize);
+
+        double leftWeight = leftSize / total;
+        double rightWeight = rightSize / total;
+
+        double weightedEntropy = leftWeight * leftEntropy + rightWeight * rightEntropy;
+        double infoGain = parentEntropy - weightedEntropy;
+
+        double splitInfo = 0.0;
+        if (leftWeight > 0) splitInfo -= leftWeight * log2(leftWeight);
+        if (rightWeight > 0) splitInfo -= rightWeight * log2(rightWeight);
+
+        return (splitInfo == 0.0) ? 0.0 : infoGain / splitInfo;
+    }
+
+    /**
+     * Smoothed entropy over the classes marked present. The right side of a scan
+     * keeps smoothing over every class of the node even once its count drops to zero.
+     */
+    protected double computeEntropyFromCounts(int[] counts, int[] present, int total) {
+        int numPresent = 0;
+        for (int c = 0; c < numClasses; c++) {
+            if (present[c] > 0) numPresent++;
+        }
+
+        double entropy = 0.0;
+        // Apply Laplace smoothing: p = (count + alpha) / (total + alpha * numClasses)
+        double smoothedTotal = (double) total + LAPLACE_ALPHA * numPresent;
+        for (int c = 0; c < numClasses; c++) {
+            if (present[c] == 0) continue;
+            double p = (counts[c] + LAPLACE_ALPHA) / smoothedTotal;
+            entropy -= p * log2(p);
+        }
+        return entropy;
+    }
+
+    /**
+     * Stable in-place partition of order[start, end) by the goesLeft flag of each row,
+     * spilling through the same range of scratch
+     * @return index of the first row of the right side
+     */
+    protected int partition(int[] order, int start, int end, boolean[] goesLeft) {
+        int write = start;
+        int spill = start;
+        for (int i = start; i < end; i++) {
+            int row = order[i];
+            if (goesLeft[row]) {
+                order[write++] = row;
+            } else {
+                scratch[spill++] = row;
+            }
+        }
+        System.arraycopy(scratch, start, order, write, spill - start);
+        return write;
+    }
+
+    public int getNumSamples() {
+        return rows.length;
+    }
+
+    public double getEntropy(int start, int end) {
+        if (end <= start) {
+            return 0.0;
+        }
+        int total = countClasses(start, end, nodeCounts);
+        return computeEntropyFromCounts(nodeCounts, nodeCounts, total);
+    }
+
+    public int getSampleCount(int start, int end) {
+        int total = 0;
+        for (int i = start; i < end; i++) {
+            total += weights[rows[i]];
+        }
+        return total;
+    }
+
+    public int getMostCommonValue(int start, int end) {
+        countClasses(start, end, nodeCounts);
+        int bestClass = -1;
+        int maxCount = 0;
+        for (int c = 0; c < numClasses; c++) {
+            if (nodeCounts[c] > maxCount) {
+                maxCount = nodeCounts[c];
+                bestClass = c;
+            }
+        }
+        return bestClass;
+    }
+
+    public double getSplitThreshold(int attribute) {
+        return bestThresholds[attribute];
+    }
+}
@@ -0,0 +1,72 @@
+package heartdisease.tree;
+
+import heartdisease.data.FeatureColumn;
+
+/**
+ * Immutable, flattened decision tree for prediction. Nodes are stored in preorder in
+ * parallel primitive arrays, so a node's left child is always the next node and
+ * traversal is a single loop with no allocation.
+ */
+public class CompiledTree {
+    // Split feature per node, or LEAF
+    private final int[] featureIndex;
+    private final double[] threshold;
+    // Index of the right child for split nodes; the predicted class for leaves
+    private final int[] next;
+
+    public static final int LEAF = -1;
+
+    public CompiledTree(int[] featureIndex, double[] threshold, int[] next) {
+        if (featureIndex.length != threshold.length || featureIndex.length != next.length) {
+            throw new IllegalArgumentException("Node arrays must have the same length");
+        }
+        this.featureIndex = featureIndex;
+        this.threshold = threshold;
+        this.next = next;
+    }
+
+    public int predict(double[] features) {
+        int node = 0;
+        int feature;
+        while ((feature = featureIndex[node]) != LEAF) {
+            node = features[feature] <= threshold[node] ? node + 1 : next[node];
+        }
+        return next[node];
+    }
+
+    /**
+     * Predict one row of a dataset by reading its features in place from the columns
+     */
+    public int predict(FeatureColumn[] columns, int row) {
+        int node = 0;
+        int feature;
+        while ((feature = featureIndex[node]) != LEAF) {
+            node = columns[feature].get(row) <= threshold[node] ? node + 1 : next[node];
+        }
+        return next[node];
+    }
+
+    public int getNumNodes() {
+        return featureIndex.length;
+    }
+
+    public boolean isLeaf(int node) {
+        return featureIndex[node] == LEAF;
+    }
+
+    public int getFeatureIndex(int node) {
+        return featureIndex[node];
+    }
+
+    public double getThreshold(int node) {
+        return threshold[node];
+    }
+
+    public int getRightChild(int node) {
+        return next[node];
+    }
+
+    public int getPredictedClass(int node) {
+        return next[node];
+    }
+}
@@ -0,0 +1,543 @@
+package heartdisease.tree;
+
+import heartdisease.data.Dataset;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.IntStream;
+
+/**
+ * Decision Tree implementation similar to Lab 7
+ */
+public class DecisionTree {
+
+    /**
+     * How candidate splits are searched while building the tree
+     */
+    public enum SplitEngine {
+        SORTED,    // re-sort the node's rows for every candidate attribute
+        PRESORTED, // sort each column once per dataset and partition the orders per node
+        HISTOGRAM  // score splits from class-count histograms over quantized columns
+    }
+
+    /**
+     * How the nodes of a tree are visited while it is built. DEPTH_FIRST draws every
+     * node's candidate attributes from the tree's random in visit order. The other
+     * orders draw them from a seed derived from the node's position in the tree instead,
+     * so they build the same tree whichever thread builds which node and in what order.
+     */
+    public enum BuildOrder {
+        DEPTH_FIRST, // recursive, one node at a time
+        PARALLEL,    // recursive; large nodes score candidates concurrently and fork their subtrees
+        LEVEL_WISE   // breadth-first; each depth makes one pass per candidate column for all its nodes
+    }
+
+    // Nodes with fewer rows than this are built sequentially in the PARALLEL order
+    private static final int PARALLEL_MIN_ROWS = 2048;
+
+    private Node root;
+    private CompiledTree compiled;
+    private FloatCompiledTree compiledFloat32;
+    private final int maxDepth;
+    private final int minSamplesSplit;
+    private final int maxFeatures;
+    private final Random random;
+    private final SplitEngine engine;
+    private final BuildOrder buildOrder;
+
+    public DecisionTree(int maxDepth, int minSamplesSplit, int maxFeatures, Random random, SplitEngine engine,
+                        BuildOrder buildOrder) {
+        this.maxDepth = maxDepth;
+        this.minSamplesSplit = minSamplesSplit;
+        this.maxFeatures = maxFeatures;
+        this.random = random;
+        this.engine = engine;
+        this.buildOrder = buildOrder;
+    }
+
+    public DecisionTree(int maxDepth, int minSamplesSplit, int maxFeatures, Random random, SplitEngine engine) {
+        this(maxDepth, minSamplesSplit, maxFeatures, random, engine, BuildOrder.DEPTH_FIRST);
+    }
+
+    public DecisionTree(int maxDepth, int minSamplesSplit, int maxFeatures, Random random) {
+        this(maxDepth, minSamplesSplit, maxFeatures, random, SplitEngine.PRESORTED);
+    }
+
+    /**
+     * Rebuild a fitted tree from its compiled form and per-node sample counts (preorder,
+     * see getNodeSampleCounts), e.g. when loading a saved model. The tree predicts and
+     * renders like the original but cannot be refitted.
+     */
+    public static DecisionTree fromCompiled(CompiledTree compiled, int[] sampleCounts, int maxDepth,
+                                            int minSamplesSplit, int maxFeatures, SplitEngine engine) {
+        if (sampleCounts.length != compiled.getNumNodes()) {
+            throw new IllegalArgumentException("Sample counts must have one entry per node");
+        }
+        DecisionTree tree = new DecisionTree(maxDepth, minSamplesSplit, maxFeatures, null, engine);
+        tree.root = expand(compiled, sampleCounts, 0);
+        tree.compiled = compiled;
+        return tree;
+    }
+
+    private static Node expand(CompiledTree compiled, int[] sampleCounts, int index) {
+        if (compiled.isLeaf(index)) {
+            return new Node(compiled.getPredictedClass(index), sampleCounts[index]);
+        }
+        Node left = expand(compiled, sampleCounts, index + 1);
+        Node right = expand(compiled, sampleCounts, compiled.getRightChild(index));
+        return new Node(compiled.getFeatureIndex(index), compiled.getThreshold(index), left, right, sampleCounts[index]);
+    }
+
+    public void fit(Dataset dataset) {
+        int[] weights = new int[dataset.getNumSamples()];
+        Arrays.fill(weights, 1);
+        fit(dataset, weights);
+    }
+
+    /**
+     * Fit on a weighted view of the dataset: weights[i] is how many times row i is in
+     * the training sample (0 leaves it out), as for a bootstrap sample, without copying rows
+     */
+    public void fit(Dataset dataset, int[] weights) {
+        // Initialize available attributes
+        int[] attributes = new int[dataset.getNumFeatures()];
+        for (int i = 0; i < attributes.length; i++) {
+            attributes[i] = i;
+        }
+
+        long rootSeed = buildOrder == BuildOrder.DEPTH_FIRST ? 0L : random.nextLong();
+        SplitEngine treeEngine = engineFor(engine, dataset);
+        // Level scans of exact engines walk the dataset's sort orders; off the heap the
+        // tree is grown recursively instead, which with the same per-node seeds is the same tree
+        if (buildOrder == BuildOrder.LEVEL_WISE && (treeEngine == SplitEngine.HISTOGRAM || dataset.isOnHeap())) {
+            root = buildLevelWise(new LevelWiseTreeMatrix(dataset, weights, treeEngine, maxDepth), attributes,
+                rootSeed);
+            this.compiled = compile(root);
+            this.compiledFloat32 = null;
+            return;
+        }
+
+        SplitFinder finder;
+        switch (treeEngine) {
+            case SORTED:
+                finder = new TreeMatrix(dataset, weights);
+                break;
+            case HISTOGRAM:
+                finder = new HistogramTreeMatrix(dataset, weights);
+                break;
+            default:
+                finder = new PresortedTreeMatrix(dataset, weights);
+                break;
+        }
+
+        root = buildTree(finder, 0, finder.getNumSamples(), attributes, 0, rootSeed);
+        this.compiled = compile(root);
+        this.compiledFloat32 = null;
+    }
+
+    /**
+     * The engine a tree is built with on the given dataset. PRESORTED keeps the dataset's
+     * sort orders and a weight-filtered copy of them per tree, an int per feature value;
+     * for features that are not on the heap (e.g. memory-mapped) that would take more heap
+     * than loading the features, so such datasets are built with SORTED, which finds the
+     * same splits with O(n) memory per tree. For the same reason LEVEL_WISE trees with an
+     * exact engine are grown recursively on such datasets (see fit).
+     */
+    public static SplitEngine engineFor(SplitEngine engine, Dataset dataset) {
+        return engine == SplitEngine.PRESORTED && !dataset.isOnHeap() ? SplitEngine.SORTED : engine;
+    }
+
+    public int predict(double[] features) {
+        return compiled.predict(features);
+    }
+
+    /**
+     * Flattened form of the fitted tree used for prediction
+     */
+    public CompiledTree getCompiled() {
+        return compiled;
+    }
+
+    /**
+     * Float-threshold copy of the compiled tree for float32 scoring, built on first use
+     */
+    public synchronized FloatCompiledTree getCompiledFloat32() {
+        if (compiledFloat32 == null) {
+            compiledFloat32 = new FloatCompiledTree(compiled);
+        }
+        return compiledFloat32;
+    }
+
+    private static CompiledTree compile(Node root) {
+        int numNodes = countNodes(root);
+        int[] featureIndex = new int[numNodes];
+        double[] threshold = new double[numNodes];
+        int[] next = new int[numNodes];
+        flatten(root, 0, featureIndex, threshold, next);
+        return new CompiledTree(featureIndex, threshold, next);
+    }
+
+    private static int countNodes(Node node) {
+        return node.isLeaf() ? 1 : 1 + countNodes(node.left) + countNodes(node.right);
+    }
+
+    /**
+     * Write the subtree in preorder starting at index
+     * @return index after the subtree's last node
+     */
+    private static int flatten(Node node, int index, int[] featureIndex, double[] threshold, int[] next) {
+        if (node.isLeaf()) {
+            featureIndex[index] = CompiledTree.LEAF;
+            next[index] = node.predictedClass;
+            return index + 1;
+        }
+        featureIndex[index] = node.featureIndex;
+        threshold[index] = node.threshold;
+        int rightIndex = flatten(node.left, index + 1, featureIndex, threshold, next);
+        next[index] = rightIndex;
+        return flatten(node.right, rightIndex, featureIndex, threshold, next);
+    }
+
+    /**
+     * Training sample count of every node, in the preorder of the compiled tree
+     */
+    public int[] getNodeSampleCounts() {
+        int[] counts = new int[compiled.getNumNodes()];
+        collectSampleCounts(root, 0, counts);
+        return counts;
+    }
+
+    private static int collectSampleCounts(Node node, int index, int[] counts) {
+        counts[index] = node.sampleCount;
+        if (node.isLeaf()) {
+            return index + 1;
+        }
+        int rightIndex = collectSampleCounts(node.left, index + 1, counts);
+        return collectSampleCounts(node.right, rightIndex, counts);
+    }
+
+    public String toDotString(String[] featureNames) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("digraph DecisionTree {\n");
+        sb.append("  node [shape=box, fontname=\"Arial\"];\n");
+        printDot(root, sb, new int[]{0}, featureNames);
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private int printDot(Node node, StringBuilder sb, int[] idCounter, String[] featureNames) {
+        if (node == null) return -1;
+
+        int myId = idCounter[0]++;
+        
+        if (node.isLeaf()) {
+            String className = node.predictedClass == 0 ? "No Disease" : "Disease";
+            String color = node.predictedClass == 0 ? "#e5f5e0" : "#ffe6e6"; // Green-ish vs Red-ish
+            
+            // Add count to label
+            String label = className + "\\n(n=" + node.sampleCount + ")";
+            
+            sb.append("  ").append(myId).append(" [label=\"").append(label)
+              .append("\", style=filled, fillcolor=\"").append(color).append("\"];\n");
+        } else {
+            String featureName = (featureNames != null && node.featureIndex < featureNames.length) 
+                    ? featureNames[node.featureIndex] 
+                    : "Feat " + node.featureIndex;
+            
+            // Add count to label
+            String splitCondition = "<= " + String.format("%.3f", node.threshold);
+            String label = featureName + "\\n" + splitCondition + "\\n(n=" + node.sampleCount + ")";
+            
+            sb.append("  ").append(myId).append(" [label=\"").append(label).append("\"];\n");
+            
+            int leftId = printDot(node.left, sb, idCounter, featureNames);
+            if (leftId != -1) {
+                sb.append("  ").append(myId).append(" -> ").append(leftId)
+                  .append(" [label=\"True\", fontsize=10];\n");
+            }
+            
+            int rightId = printDot(node.right, sb, idCounter, featureNames);
+            if (rightId != -1) {
+                sb.append("  ").append(myId).append(" -> ").append(rightId)
+                  .append(" [label=\"False\", fontsize=10];\n");
+            }
+        }
+        return myId;
+    }
+
+    /**
+     * Grow the subtree for the finder's rows in [start, end)
+     * @param nodeSeed Seed of this node's candidate attributes (not used for DEPTH_FIRST)
+     */
+    private Node buildTree(SplitFinder finder, int start, int end, int[] availableAttributes, int depth,
+                           long nodeSeed) {
+        int numRows = finder.getSampleCount(start, end);
+        double entropy = finder.getEntropy(start, end);
+        // Base case: Stop if attributes exhausted or entropy is low (pure enough)
+        if (availableAttributes.length == 0 || entropy < 0.01 || depth >= maxDepth || numRows < minSamplesSplit) {
+            return leaf(finder, start, end);
+        }
+
+        // Feature Selection for Random Forest (Random subset of available attributes)
+        int[] candidateAttributes = availableAttributes;
+        if (maxFeatures < availableAttributes.length) {
+            candidateAttributes = availableAttributes.clone();
+            shuffle(candidateAttributes, buildOrder == BuildOrder.DEPTH_FIRST ? random : new Random(nodeSeed));
+            candidateAttributes = Arrays.copyOf(candidateAttributes, maxFeatures);
+        }
+
+        boolean parallel = buildOrder == BuildOrder.PARALLEL && end - start >= PARALLEL_MIN_ROWS;
+        double[] gainRatios = new double[candidateAttributes.length];
+        SplitFinder[] scanners = new SplitFinder[candidateAttributes.length];
+        int[] candidates = candidateAttributes;
+        if (parallel && candidates.length > 1) {
+            // Score each candidate on its own fork of the finder
+            IntStream.range(0, candidates.length).parallel().forEach(i -> {
+                scanners[i] = finder.fork();
+                gainRatios[i] = scanners[i].computeIGR(candidates[i], start, end, entropy);
+            });
+        } else {
+            for (int i = 0; i < candidates.length; i++) {
+                scanners[i] = finder;
+                gainRatios[i] = finder.computeIGR(candidates[i], start, end, entropy);
+            }
+        }
+
+        double bestIGR = -1.0;
+        int best = -1;
+
+        // Find best attribute to split on
+        for (int i = 0; i < candidates.length; i++) {
+            if (gainRatios[i] > bestIGR) {
+                bestIGR = gainRatios[i];
+                best = i;
+            }
+        }
+
+        // If no gain or invalid split, stop
+        if (bestIGR <= 0.0) {
+            return leaf(finder, start, end);
+        }
+
+        // Perform Split: the finder that scored the winner partitions the range in place
+        int bestAttribute = candidates[best];
+        double threshold = scanners[best].getSplitThreshold(bestAttribute);
+        int mid = scanners[best].split(bestAttribute, start, end);
+
+        // Pre-prune: if splitting results in empty children
+        if (mid == start || mid == end) {
+            return leaf(finder, start, end);
+        }
+
+        int[] remainingAttributes = new int[availableAttributes.length - 1];
+        int next = 0;
+        for (int attribute : availableAttributes) {
+            if (attribute != bestAttribute) {
+                remainingAttributes[next++] = attribute;
+            }
+        }
+
+        Node leftChild;
+        Node rightChild;
+        if (parallel) {
+            // The right subtree owns [mid, end) and builds on its own fork of the finder
+            SplitFinder rightFinder = finder.fork();
+            ForkJoinTask<Node> right = ForkJoinTask.adapt(() ->
+                buildTree(rightFinder, mid, end, remainingAttributes, depth + 1, childSeed(nodeSeed, 1))).fork();
+            leftChild = buildTree(finder, start, mid, remainingAttributes, depth + 1, childSeed(nodeSeed, 0));
+            rightChild = right.join();
+        } else {
+            leftChild = buildTree(finder, start, mid, remainingAttributes, depth + 1, childSeed(nodeSeed, 0));
+            rightChild = buildTree(finder, mid, end, remainingAttributes, depth + 1, childSeed(nodeSeed, 1));
+        }
+
+        // Optimization: If both children are leaves and predict the same class, 
+        // collapse this node into a leaf.
+        if (leftChild.isLeaf() && rightChild.isLeaf() && leftChild.predictedClass == rightChild.predictedClass) {
+            return new Node(leftChild.predictedClass, numRows);
+        }
+
+        return new Node(bestAttribute, threshold, leftChild, rightChild, numRows);
+    }
+
+    /**
+     * Grow the tree breadth-first: every depth decides its nodes with the same rules and
+     * per-node seeds as buildTree, scoring all their candidates in one level scan, and
+     * partitions the rows exactly as buildTree does. Leaf collapsing is applied bottom-up
+     * at the end, so the result equals the recursive build.
+     */
+    private Node buildLevelWise(LevelWiseTreeMatrix finder, int[] attributes, long rootSeed) {
+        LevelNode root = new LevelNode(0, finder.getNumSamples(), attributes, 0, rootSeed);
+        List<LevelNode> level = Collections.singletonList(root);
+
+        while (!level.isEmpty()) {
+            List<LevelNode> splitting = new ArrayList<>();
+            List<LevelWiseTreeMatrix.Frontier> frontier = new ArrayList<>();
+            for (LevelNode node : level) {
+                node.numRows = finder.getSampleCount(node.start, node.end);
+                double entropy = finder.getEntropy(node.start, node.end);
+                if (node.attributes.length == 0 || entropy < 0.01 || node.depth >= maxDepth
+                        || node.numRows < minSamplesSplit) {
+                    node.leaf = leaf(finder, node.start, node.end);
+                    continue;
+                }
+
+                int[] candidateAttributes = node.attributes;
+                if (maxFeatures < node.attributes.length) {
+                    candidateAttributes = node.attributes.clone();
+                    shuffle(candidateAttributes, new Random(node.seed));
+                    candidateAttributes = Arrays.copyOf(candidateAttributes, maxFeatures);
+                }
+                node.frontier = new LevelWiseTreeMatrix.Frontier(node.start, node.end, candidateAttributes, entropy);
+                splitting.add(node);
+                frontier.add(node.frontier);
+            }
+
+            finder.scoreLevel(frontier);
+
+            List<LevelNode> next = new ArrayList<>();
+            for (LevelNode node : splitting) {
+                double[] gainRatios = node.frontier.gainRatios;
+                double bestIGR = -1.0;
+                int best = -1;
+                for (int i = 0; i < gainRatios.length; i++) {
+                    if (gainRatios[i] > bestIGR) {
+                        bestIGR = gainRatios[i];
+                        best = i;
+                    }
+                }
+                if (bestIGR <= 0.0) {
+                    node.leaf = leaf(finder, node.start, node.end);
+                    continue;
+                }
+
+                int mid = finder.split(node.frontier, best);
+                if (mid == node.start || mid == node.end) {
+                    node.leaf = leaf(finder, node.start, node.end);
+                    continue;
+                }
+
+                node.attribute = node.frontier.candidates[best];
+                node.threshold = node.frontier.thresholds[best];
+                int[] remainingAttributes = new int[node.attributes.length - 1];
+                int nextAttribute = 0;
+                for (int attribute : node.attributes) {
+                    if (attribute != node.attribute) {
+                        remainingAttributes[nextAttribute++] = attribute;
+                    }
+                }
+                node.left = new LevelNode(node.start, mid, remainingAttributes, node.depth + 1, childSeed(node.seed, 0));
+                node.right = new LevelNode(mid, node.end, remainingAttributes, node.depth + 1, childSeed(node.seed, 1));
+                next.add(node.left);
+                next.add(node.right);
+                node.frontier = null;
+            }
+            level = next;
+        }
+        return assemble(root);
+    }
+
+    /**
+     * Turn the finished level nodes into tree nodes, collapsing as buildTree does
+     */
+    private static Node assemble(LevelNode node) {
+        if (node.leaf != null) {
+            return node.leaf;
+        }
+        Node leftChild = assemble(node.left);
+        Node rightChild = assemble(node.right);
+        if (leftChild.isLeaf() && rightChild.isLeaf() && leftChild.predictedClass == rightChild.predictedClass) {
+            return new Node(leftChild.predictedClass, node.numRows);
+        }
+        return new Node(node.attribute, node.threshold, leftChild, rightChild, node.numRows);
+    }
+
+    /**
+     * A node of the breadth-first build: its rows and inputs, then either a leaf or the
+     * chosen split and children
+     */
+    private static class LevelNode {
+        final int start;
+        final int end;
+        final int[] attributes;
+        final int depth;
+        final long seed;
+        int numRows;
+        LevelWiseTreeMatrix.Frontier frontier;
+        Node leaf;
+        int attribute;
+        double threshold;
+        LevelNode left;
+        LevelNode right;
+
+        LevelNode(int start, int end, int[] attributes, int depth, long seed) {
+            this.start = start;
+            this.end = end;
+            this.attributes = attributes;
+            this.depth = depth;
+            this.seed = seed;
+        }
+    }
+
+    /**
+     * Seed of a node's left (0) or right (1) child: a SplitMix64 step from the parent's
+     */
+    private static long childSeed(long nodeSeed, int side) {
+        long z = nodeSeed + (side + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Fisher-Yates shuffle drawing from rng exactly as Collections.shuffle does
+     */
+    private static void shuffle(int[] values, Random rng) {
+        for (int i = values.length; i > 1; i--) {
+            int j = rng.nextInt(i);
+            int tmp = values[i - 1];
+            values[i - 1] = values[j];
+            values[j] = tmp;
+        }
+    }
+
+    private static Node leaf(SplitFinder finder, int start, int end) {
+        finder.release(start, end);
+        return new Node(finder.getMostCommonValue(start, end), finder.getSampleCount(start, end));
+    }
+
+    private static Node leaf(LevelWiseTreeMatrix finder, int start, int end) {
+        finder.release(start, end);
+        return new Node(finder.getMostCommonValue(start, end), finder.getSampleCount(start, end));
+    }
+
+    /**
+     * Internal Node class
+     */
+    private static class Node {
+        int featureIndex;
+        double threshold;
+        Node left;
+        Node right;
+        int predictedClass;
+        int sampleCount;
+
+        Node(int predictedClass, int sampleCount) {
+            this.predictedClass = predictedClass;
+            this.sampleCount = sampleCount;
+        }
+
+        Node(int featureIndex, double threshold, Node left, Node right, int sampleCount) {
+            this.featureIndex = featureIndex;
+            this.threshold = threshold;
+            this.left = left;
+            this.right = right;
+            this.predictedClass = -1;
+            this.sampleCount = sampleCount;
+        }
+
+        boolean isLeaf() {
+            return left == null && right == null;
+        }
+    }
+}
\ No newline at end of file
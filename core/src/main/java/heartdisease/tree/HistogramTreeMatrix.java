@@ -0,0 +1,155 @@
+package heartdisease.tree;
+
+import heartdisease.data.Dataset;
+import heartdisease.data.FeatureBins;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Split finder that scores candidate splits from per-bin class-count histograms
+ * over the dataset's quantized columns (see FeatureBins) instead of scanning sorted rows.
+ *
+ * Node histograms are kept for the pending nodes of the depth-first build. When a node
+ * splits, only the smaller child is histogrammed; the larger one is the parent minus it.
+ * With at most 255 distinct values per column the gain ratios equal TreeMatrix's.
+ * Counts are weighted by each row's multiplicity in the training sample.
+ */
+public class HistogramTreeMatrix extends AbstractTreeMatrix implements SplitFinder {
+    private final FeatureBins bins;
+    private final int[] bestBins;
+    private final int[] binCounts;
+    // Histograms of nodes still to be visited, keyed by their row range; shared with forks
+    private final Map<Long, int[][]> histograms;
+
+    public HistogramTreeMatrix(Dataset dataset, int[] weights) {
+        super(dataset, weights);
+        this.bins = dataset.getBins();
+        this.bestBins = new int[dataset.getNumFeatures()];
+        this.binCounts = new int[numClasses];
+        this.histograms = new ConcurrentHashMap<>();
+    }
+
+    private HistogramTreeMatrix(HistogramTreeMatrix parent) {
+        super(parent);
+        this.bins = parent.bins;
+        this.bestBins = new int[parent.bestBins.length];
+        this.binCounts = new int[numClasses];
+        this.histograms = parent.histograms;
+    }
+
+    @Override
+    public SplitFinder fork() {
+        return new HistogramTreeMatrix(this);
+    }
+
+    private static long key(int start, int end) {
+        return ((long) start << 32) | end;
+    }
+
+    /**
+     * hist[attribute][bin * numClasses + label] for the rows in [start, end)
+     */
+    private int[][] buildHistogram(int start, int end) {
+        int numFeatures = dataset.getNumFeatures();
+        int[][] hist = new int[numFeatures][];
+        for (int attribute = 0; attribute < numFeatures; attribute++) {
+            byte[] codes = bins.getCodes(attribute);
+            int[] h = new int[bins.getNumBins(attribute) * numClasses];
+            for (int i = start; i < end; i++) {
+                int row = rows[i];
+                h[(codes[row] & 0xFF) * numClasses + labels[row]] += weights[row];
+            }
+            hist[attribute] = h;
+        }
+        return hist;
+    }
+
+    private int[][] histogram(int start, int end) {
+        return histograms.computeIfAbsent(key(start, end), k -> buildHistogram(start, end));
+    }
+
+    @Override
+    public double computeIGR(int attribute, int start, int end, double parentEntropy) {
+        if (end - start <= 1) return 0.0;
+
+        int[] hist = histogram(start, end)[attribute];
+        int numBins = bins.getNumBins(attribute);
+        double bestGainRatio = 0.0;
+        int bestBin = -1;
+
+        int leftSize = 0;
+        int rightSize = beginScan(start, end);
+
+        // Every non-empty bin boundary is a candidate, as every value change is for TreeMatrix
+        for (int bin = 0; bin < numBins - 1; bin++) {
+            System.arraycopy(hist, bin * numClasses, binCounts, 0, numClasses);
+            int binSize = 0;
+            for (int c = 0; c < numClasses; c++) {
+                leftCounts[c] += binCounts[c];
+                rightCounts[c] -= binCounts[c];
+                binSize += binCounts[c];
+            }
+            if (binSize == 0) continue;
+            leftSize += binSize;
+            rightSize -= binSize;
+            if (rightSize == 0) break;
+
+            double gainRatio = gainRatio(leftSize, rightSize, parentEntropy);
+
+            if (gainRatio > bestGainRatio) {
+                bestGainRatio = gainRatio;
+                bestBin = bin;
+            }
+        }
+
+        if (bestBin >= 0) {
+            bestBins[attribute] = bestBin;
+            bestThresholds[attribute] = bins.getThreshold(attribute, bestBin);
+            return bestGainRatio;
+        }
+
+        return 0.0;
+    }
+
+    @Override
+    public int split(int attribute, int start, int end) {
+        int bestBin = bestBins[attribute];
+        byte[] codes = bins.getCodes(attribute);
+
+        int write = start;
+        int spill = start;
+        for (int i = start; i < end; i++) {
+            int row = rows[i];
+            if ((codes[row] & 0xFF) <= bestBin) {
+                rows[write++] = row;
+            } else {
+                scratch[spill++] = row;
+            }
+        }
+        System.arraycopy(scratch, start, rows, write, spill - start);
+        int mid = write;
+
+        int[][] parent = histograms.remove(key(start, end));
+        if (parent != null && mid > start && mid < end) {
+            // Histogram the smaller child and derive its sibling by subtraction
+            boolean leftSmaller = mid - start <= end - mid;
+            int[][] small = leftSmaller ? buildHistogram(start, mid) : buildHistogram(mid, end);
+            for (int a = 0; a < parent.length; a++) {
+                int[] p = parent[a];
+                int[] s = small[a];
+                for (int j = 0; j < p.length; j++) {
+                    p[j] -= s[j];
+                }
+            }
+            histograms.put(leftSmaller ? key(start, mid) : key(mid, end), small);
+            histograms.put(leftSmaller ? key(mid, end) : key(start, mid), parent);
+        }
+        return mid;
+    }
+
+    @Override
+    public void release(int start, int end) {
+        histograms.remove(key(start, end));
+    }
+}
@@ -0,0 +1,441 @@
+package heartdisease.tree;
+
+import heartdisease.data.Dataset;
+import heartdisease.data.FeatureBins;
+import heartdisease.data.FeatureColumn;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Scoring and partitioning for breadth-first building: all nodes of one depth (the
+ * frontier) are scored together by DecisionTree.buildLevelWise.
+ *
+ * Exact engines map every tree row to its frontier node and walk the dataset's
+ * presorted order of each candidate column once per level, keeping running left counts
+ * per node and scoring a node's split whenever its next row has a new value (SLIQ
+ * style); the orders are never partitioned per node. HISTOGRAM keeps a histogram of
+ * every frontier node, as HistogramTreeMatrix does for its pending nodes: of two
+ * children only the smaller is histogrammed and the larger one is the parent minus it.
+ * That happens when the next level is scored, so children that become leaves cost
+ * nothing. At most HISTOGRAM_BUDGET_BYTES of histograms are kept across nodes; past
+ * that, a node's histogram is built from its rows, scored and dropped, and its children
+ * are histogrammed from their own rows. Candidates, counts and ties resolve as in the depth-first finders, so the
+ * gain ratios and thresholds are the same.
+ */
+class LevelWiseTreeMatrix extends AbstractTreeMatrix {
+    // Histograms kept between scoring and splitting, per tree; a level can be as wide as
+    // half the rows, so keeping every node's histogram is not bounded otherwise
+    static final long HISTOGRAM_BUDGET_BYTES = 32L << 20;
+
+    private final boolean histogram;
+    private final FeatureBins bins;
+    private final int[][] sortedOrders;
+    private final boolean[] goesLeft;
+    // HISTOGRAM: hist[attribute][bin * numClasses + label] of each frontier node, keyed by row range
+    private final Map<Long, int[][]> histograms;
+    // HISTOGRAM: split nodes whose children have not been histogrammed yet, keyed by each child
+    private final Map<Long, Split> splits;
+    // Histograms held by the two maps (a split counts once), and how many fit the budget
+    private int retained;
+    private final int maxRetained;
+
+    // Exact engines: frontier node of each dataset row during a level scan, -1 if none
+    private final int[] nodeOf;
+    // Per-node scan state, sized for the widest possible level and cleared between uses;
+    // class counts are flat arrays of numClasses entries per node
+    private final int[] slot;
+    private final int[] nodeClassCounts;
+    private final int[] nodeSizes;
+    private final int[] left;
+    private final int[] leftSizes;
+    private final double[] lastValues;
+    private final boolean[] seen;
+    private final double[] bestGainRatios;
+    private final double[] bestSplits;
+    private final boolean[] found;
+    private final int[] nodeCountsView;
+    private final int[] leftView;
+
+    /**
+     * A frontier node to score: its row range, candidate attributes and entropy, and
+     * after scoreLevel the best gain ratio and split of each candidate
+     */
+    static class Frontier {
+        final int start;
+        final int end;
+        final int[] candidates;
+        final double parentEntropy;
+        final double[] gainRatios;
+        final double[] thresholds;
+        final int[] bestBins;
+
+        Frontier(int start, int end, int[] candidates, double parentEntropy) {
+            this.start = start;
+            this.end = end;
+            this.candidates = candidates;
+            this.parentEntropy = parentEntropy;
+            this.gainRatios = new double[candidates.length];
+            this.thresholds = new double[candidates.length];
+            this.bestBins = new int[candidates.length];
+        }
+    }
+
+    /**
+     * A split node's histogram and the row ranges of its children
+     */
+    private static class Split {
+        final int[][] parent;
+        final int start;
+        final int mid;
+        final int end;
+
+        Split(int[][] parent, int start, int mid, int end) {
+            this.parent = parent;
+            this.start = start;
+            this.mid = mid;
+            this.end = end;
+        }
+    }
+
+    /**
+     * @param engine HISTOGRAM scans bin codes; SORTED and PRESORTED both scan the
+     *               dataset's presorted columns
+     * @param maxDepth Depth limit of the tree, which bounds the width of a level
+     */
+    LevelWiseTreeMatrix(Dataset dataset, int[] weights, DecisionTree.SplitEngine engine, int maxDepth) {
+        super(dataset, weights);
+        this.histogram = engine == DecisionTree.SplitEngine.HISTOGRAM;
+        this.bins = histogram ? dataset.getBins() : null;
+        this.sortedOrders = histogram ? null : dataset.getSortedOrders();
+        this.goesLeft = new boolean[dataset.getNumSamples()];
+        this.histograms = histogram ? new HashMap<>() : null;
+        this.splits = histogram ? new HashMap<>() : null;
+        this.maxRetained = histogram ? maxRetained(bins, dataset.getNumFeatures(), numClasses) : 0;
+
+        int maxWidth = histogram ? 0 : maxLevelWidth(rows.length, maxDepth);
+        this.nodeOf = histogram ? null : new int[dataset.getNumSamples()];
+        if (!histogram) {
+            Arrays.fill(nodeOf, -1);
+        }
+        this.slot = new int[maxWidth];
+        this.nodeClassCounts = new int[maxWidth * numClasses];
+        this.nodeSizes = new int[maxWidth];
+        this.left = new int[maxWidth * numClasses];
+        this.leftSizes = new int[maxWidth];
+        this.lastValues = new double[maxWidth];
+        this.seen = new boolean[maxWidth];
+        this.bestGainRatios = new double[maxWidth];
+        this.bestSplits = new double[maxWidth];
+        this.found = new boolean[maxWidth];
+        this.nodeCountsView = new int[numClasses];
+        this.leftView = new int[numClasses];
+    }
+
+    /**
+     * How many full histograms fit in HISTOGRAM_BUDGET_BYTES; at least a parent and a child
+     */
+    private static int maxRetained(FeatureBins bins, int numFeatures, int numClasses) {
+        long bytes = 16L * numFeatures;
+        for (int attribute = 0; attribute < numFeatures; attribute++) {
+            bytes += 16L + 4L * bins.getNumBins(attribute) * numClasses;
+        }
+        return (int) Math.max(2, Math.min(Integer.MAX_VALUE, HISTOGRAM_BUDGET_BYTES / bytes));
+    }
+
+    /**
+     * Most nodes a level can score: each has at least two rows (one row has zero
+     * entropy), and depth d, which is below maxDepth, holds at most 2^d nodes
+     */
+    private static int maxLevelWidth(int numRows, int maxDepth) {
+        int width = numRows / 2;
+        if (maxDepth <= 31) {
+            width = Math.min(width, 1 << Math.max(0, maxDepth - 1));
+        }
+        return width;
+    }
+
+    /**
+     * Score every candidate of every frontier node: one pass per attribute that is a
+     * candidate of any node, or for HISTOGRAM a scan of each node's histograms
+     */
+    void scoreLevel(List<Frontier> frontier) {
+        if (histogram) {
+            for (Frontier node : frontier) {
+                int[][] hist = histogram(node.start, node.end);
+                int nodeSize = sumBins(hist[node.candidates[0]]);
+                for (int i = 0; i < node.candidates.length; i++) {
+                    scanHistogram(node, i, hist[node.candidates[i]], nodeSize);
+                }
+            }
+            return;
+        }
+
+        int numNodes = frontier.size();
+        for (int j = 0; j < numNodes; j++) {
+            Frontier node = frontier.get(j);
+            for (int i = node.start; i < node.end; i++) {
+                nodeOf[rows[i]] = j;
+            }
+            nodeSizes[j] = countClasses(node.start, node.end, nodeCounts);
+            System.arraycopy(nodeCounts, 0, nodeClassCounts, j * numClasses, numClasses);
+        }
+
+        // slot[j]: position of the attribute among node j's candidates, -1 if not one
+        for (int attribute = 0; attribute < dataset.getNumFeatures(); attribute++) {
+            boolean anyNode = false;
+            for (int j = 0; j < numNodes; j++) {
+                slot[j] = indexOf(frontier.get(j).candidates, attribute);
+                anyNode |= slot[j] >= 0;
+            }
+            if (anyNode) {
+                scanSorted(attribute, frontier);
+            }
+        }
+
+        for (Frontier node : frontier) {
+            for (int i = node.start; i < node.end; i++) {
+                nodeOf[rows[i]] = -1;
+            }
+        }
+    }
+
+    /**
+     * One walk over the attribute's presorted order for all nodes at once
+     */
+    private void scanSorted(int attribute, List<Frontier> frontier) {
+        int numNodes = frontier.size();
+        FeatureColumn column = columns[attribute];
+        Arrays.fill(left, 0, numNodes * numClasses, 0);
+        Arrays.fill(leftSizes, 0, numNodes, 0);
+        Arrays.fill(seen, 0, numNodes, false);
+        Arrays.fill(bestGainRatios, 0, numNodes, 0.0);
+        Arrays.fill(bestSplits, 0, numNodes, 0.0);
+        Arrays.fill(found, 0, numNodes, false);
+
+        for (int row : sortedOrders[attribute]) {
+            int j = nodeOf[row];
+            if (j < 0 || slot[j] < 0) continue;
+            double value = column.get(row);
+            int offset = j * numClasses;
+
+            // A new value closes the candidate split after the previous one
+            if (seen[j] && value != lastValues[j]) {
+                System.arraycopy(nodeClassCounts, offset, nodeCountsView, 0, numClasses);
+                System.arraycopy(left, offset, leftView, 0, numClasses);
+                for (int c = 0; c < numClasses; c++) {
+                    rightCounts[c] = nodeCountsView[c] - leftView[c];
+                }
+                double gainRatio = gainRatio(leftView, rightCounts, nodeCountsView,
+                    leftSizes[j], nodeSizes[j] - leftSizes[j], frontier.get(j).parentEntropy);
+                if (gainRatio > bestGainRatios[j]) {
+                    bestGainRatios[j] = gainRatio;
+                    bestSplits[j] = (lastValues[j] + value) / 2.0;
+                    found[j] = true;
+                }
+            }
+
+            left[offset + labels[row]] += weights[row];
+            leftSizes[j] += weights[row];
+            lastValues[j] = value;
+            seen[j] = true;
+        }
+
+        for (int j = 0; j < numNodes; j++) {
+            if (slot[j] < 0) continue;
+            Frontier node = frontier.get(j);
+            node.gainRatios[slot[j]] = found[j] ? bestGainRatios[j] : 0.0;
+            node.thresholds[slot[j]] = bestSplits[j];
+        }
+    }
+
+    /**
+     * Scan one candidate's histogram of the node; nodeCounts holds the node's class counts
+     */
+    private void scanHistogram(Frontier node, int candidate, int[] hist, int nodeSize) {
+        int attribute = node.candidates[candidate];
+        int numBins = bins.getNumBins(attribute);
+        System.arraycopy(nodeCounts, 0, rightCounts, 0, numClasses);
+        Arrays.fill(leftCounts, 0);
+        int leftSize = 0;
+        int rightSize = nodeSize;
+        double bestGainRatio = 0.0;
+        int bestBin = -1;
+
+        for (int bin = 0; bin < numBins - 1; bin++) {
+            int offset = bin * numClasses;
+            int binSize = 0;
+            for (int c = 0; c < numClasses; c++) {
+                leftCounts[c] += hist[offset + c];
+                rightCounts[c] -= hist[offset + c];
+                binSize += hist[offset + c];
+            }
+            if (binSize == 0) continue;
+            leftSize += binSize;
+            rightSize -= binSize;
+            if (rightSize == 0) break;
+
+            double gainRatio = gainRatio(leftSize, rightSize, node.parentEntropy);
+            if (gainRatio > bestGainRatio) {
+                bestGainRatio = gainRatio;
+                bestBin = bin;
+            }
+        }
+
+        node.gainRatios[candidate] = bestBin >= 0 ? bestGainRatio : 0.0;
+        node.bestBins[candidate] = bestBin;
+        node.thresholds[candidate] = bestBin >= 0 ? bins.getThreshold(attribute, bestBin) : 0.0;
+    }
+
+    /**
+     * Fill nodeCounts with the class counts of one attribute's histogram, which are the node's
+     * @return total weight of the node
+     */
+    private int sumBins(int[] hist) {
+        Arrays.fill(nodeCounts, 0);
+        int total = 0;
+        for (int i = 0; i < hist.length; i++) {
+            nodeCounts[i % numClasses] += hist[i];
+            total += hist[i];
+        }
+        return total;
+    }
+
+    private static long key(int start, int end) {
+        return ((long) start << 32) | end;
+    }
+
+    /**
+     * hist[attribute][bin * numClasses + label] for the rows in [start, end)
+     */
+    private int[][] buildHistogram(int start, int end) {
+        int numFeatures = dataset.getNumFeatures();
+        int[][] hist = new int[numFeatures][];
+        for (int attribute = 0; attribute < numFeatures; attribute++) {
+            byte[] codes = bins.getCodes(attribute);
+            int[] h = new int[bins.getNumBins(attribute) * numClasses];
+            for (int i = start; i < end; i++) {
+                int row = rows[i];
+                h[(codes[row] & 0xFF) * numClasses + labels[row]] += weights[row];
+            }
+            hist[attribute] = h;
+        }
+        return hist;
+    }
+
+    /**
+     * The node's histogram: kept from the previous level, built from its rows and its
+     * parent's by subtraction (also for its sibling if that is scored too), or built
+     * directly when no parent histogram was kept. It is kept for split while the budget allows.
+     */
+    private int[][] histogram(int start, int end) {
+        long key = key(start, end);
+        int[][] hist = histograms.get(key);
+        if (hist != null) {
+            return hist;
+        }
+        Split split = splits.remove(key);
+        if (split == null) {
+            hist = buildHistogram(start, end);
+        } else {
+            boolean isLeft = start == split.start;
+            long siblingKey = isLeft ? key(split.mid, split.end) : key(split.start, split.mid);
+            boolean siblingScored = splits.remove(siblingKey) != null;
+            retained--;
+            boolean leftSmaller = split.mid - split.start <= split.end - split.mid;
+            int[][] small = leftSmaller ? buildHistogram(split.start, split.mid)
+                : buildHistogram(split.mid, split.end);
+            boolean isSmall = isLeft == leftSmaller;
+            if (!isSmall || siblingScored) {
+                int[][] parent = split.parent;
+                for (int a = 0; a < parent.length; a++) {
+                    int[] p = parent[a];
+                    int[] s = small[a];
+                    for (int j = 0; j < p.length; j++) {
+                        p[j] -= s[j];
+                    }
+                }
+            }
+            hist = isSmall ? small : split.parent;
+            if (siblingScored) {
+                keep(siblingKey, isSmall ? split.parent : small);
+            }
+        }
+        keep(key, hist);
+        return hist;
+    }
+
+    private void keep(long key, int[][] hist) {
+        if (retained < maxRetained) {
+            histograms.put(key, hist);
+            retained++;
+        }
+    }
+
+    /**
+     * Partition the node's rows on its scored split of the candidate at the given position
+     * @return index of the first row of the right child
+     */
+    int split(Frontier node, int candidate) {
+        int attribute = node.candidates[candidate];
+        int start = node.start;
+        int end = node.end;
+        if (histogram) {
+            byte[] codes = bins.getCodes(attribute);
+            int bestBin = node.bestBins[candidate];
+            for (int i = start; i < end; i++) {
+                int row = rows[i];
+                goesLeft[row] = (codes[row] & 0xFF) <= bestBin;
+            }
+        } else {
+            FeatureColumn column = columns[attribute];
+            double threshold = node.thresholds[candidate];
+            for (int i = start; i < end; i++) {
+                int row = rows[i];
+                goesLeft[row] = column.get(row) <= threshold;
+            }
+        }
+        int mid = partition(rows, start, end, goesLeft);
+
+        int[][] parent = histogram ? histograms.remove(key(start, end)) : null;
+        if (parent != null) {
+            retained--;
+            if (mid > start && mid < end) {
+                // The children's histograms are derived from it once the next level is scored
+                Split split = new Split(parent, start, mid, end);
+                splits.put(key(start, mid), split);
+                splits.put(key(mid, end), split);
+                retained++;
+            }
+        }
+        return mid;
+    }
+
+    /**
+     * Called when a node becomes a leaf, so its histogram can be dropped
+     */
+    void release(int start, int end) {
+        if (!histogram) {
+            return;
+        }
+        if (histograms.remove(key(start, end)) != null) {
+            retained--;
+        }
+        Split split = splits.remove(key(start, end));
+        if (split != null) {
+            long siblingKey = start == split.start ? key(split.mid, split.end) : key(split.start, split.mid);
+            if (!splits.containsKey(siblingKey)) {
+                retained--;
+            }
+        }
+    }
+
+    private static int indexOf(int[] values, int value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == value) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,110 @@
+package heartdisease.tree;
+
+import heartdisease.data.Dataset;
+import heartdisease.data.FeatureColumn;
+
+/**
+ * Split finder that sorts every feature column once per dataset and keeps the
+ * sorted orders partitioned per node as the tree is split (CART/SLIQ style),
+ * so each candidate scan is linear in the node size.
+ *
+ * Every node owns the same [start, end) range in each of the sorted columns.
+ */
+public class PresortedTreeMatrix extends AbstractTreeMatrix implements SplitFinder {
+    // sorted[attribute] holds the tree's rows ordered by that attribute's value
+    private final int[][] sorted;
+    private final boolean[] goesLeft;
+
+    public PresortedTreeMatrix(Dataset dataset, int[] weights) {
+        super(dataset, weights);
+        int numFeatures = dataset.getNumFeatures();
+        this.goesLeft = new boolean[dataset.getNumSamples()];
+
+        // The dataset's orders are sorted once; each tree keeps only its weighted rows
+        int[][] datasetOrders = dataset.getSortedOrders();
+        this.sorted = new int[numFeatures][];
+        for (int attribute = 0; attribute < numFeatures; attribute++) {
+            int[] order = new int[rows.length];
+            int next = 0;
+            for (int row : datasetOrders[attribute]) {
+                if (weights[row] > 0) {
+                    order[next++] = row;
+                }
+            }
+            sorted[attribute] = order;
+        }
+    }
+
+    private PresortedTreeMatrix(PresortedTreeMatrix parent) {
+        super(parent);
+        this.sorted = parent.sorted;
+        this.goesLeft = parent.goesLeft;
+    }
+
+    @Override
+    public SplitFinder fork() {
+        return new PresortedTreeMatrix(this);
+    }
+
+    @Override
+    public double computeIGR(int attribute, int start, int end, double parentEntropy) {
+        if (end - start <= 1) return 0.0;
+
+        int[] order = sorted[attribute];
+        FeatureColumn column = columns[attribute];
+        double bestGainRatio = 0.0;
+        double bestThreshold = 0.0;
+        boolean foundSplit = false;
+
+        int leftSize = 0;
+        int rightSize = beginScan(start, end);
+        double currentVal = column.get(order[start]);
+
+        for (int i = start; i < end - 1; i++) {
+            int row = order[i];
+            int label = labels[row];
+            int weight = weights[row];
+
+            // Move sample from right to left
+            rightCounts[label] -= weight;
+            rightSize -= weight;
+            leftCounts[label] += weight;
+            leftSize += weight;
+
+            double nextVal = column.get(order[i + 1]);
+            if (currentVal == nextVal) continue;
+
+            double gainRatio = gainRatio(leftSize, rightSize, parentEntropy);
+
+            if (gainRatio > bestGainRatio) {
+                bestGainRatio = gainRatio;
+                bestThreshold = (currentVal + nextVal) / 2.0;
+                foundSplit = true;
+            }
+            currentVal = nextVal;
+        }
+
+        if (foundSplit) {
+            bestThresholds[attribute] = bestThreshold;
+            return bestGainRatio;
+        }
+
+        return 0.0;
+    }
+
+    @Override
+    public int split(int attribute, int start, int end) {
+        double threshold = bestThresholds[attribute];
+        FeatureColumn column = columns[attribute];
+        for (int i = start; i < end; i++) {
+            int row = rows[i];
+            goesLeft[row] = column.get(row) <= threshold;
+        }
+
+        // Stable partition keeps every column sorted within both children
+        for (int[] order : sorted) {
+            partition(order, start, end, goesLeft);
+        }
+        return partition(rows, start, end, goesLeft);
+    }
+}
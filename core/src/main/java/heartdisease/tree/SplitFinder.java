@@ -0,0 +1,49 @@
+package heartdisease.tree;
+
+/**
+ * Split search over tree nodes addressed as contiguous [start, end) ranges
+ * of a row buffer owned by the finder
+ */
+public interface SplitFinder {
+
+    /**
+     * Number of rows in the root range
+     */
+    int getNumSamples();
+
+    /**
+     * Training samples in the node, counting a row once per time it was drawn
+     */
+    int getSampleCount(int start, int end);
+
+    double getEntropy(int start, int end);
+
+    int getMostCommonValue(int start, int end);
+
+    /**
+     * Best information gain ratio for the attribute over the node's rows.
+     * The winning threshold is cached for a following split call.
+     */
+    double computeIGR(int attribute, int start, int end, double parentEntropy);
+
+    double getSplitThreshold(int attribute);
+
+    /**
+     * Partition the node's rows on the cached threshold of the attribute,
+     * rows with value <= threshold first
+     * @return index of the first row of the right child
+     */
+    int split(int attribute, int start, int end);
+
+    /**
+     * A finder over the same row buffer with its own scan state, so another thread can
+     * score attributes of a node, or build a subtree on a range no other thread touches
+     */
+    SplitFinder fork();
+
+    /**
+     * Called when a node becomes a leaf, so per-node state can be dropped
+     */
+    default void release(int start, int end) {
+    }
+}
@@ -0,0 +1,99 @@
+package heartdisease.tree;
+
+import heartdisease.data.Dataset;
+import heartdisease.data.FeatureColumn;
+import heartdisease.data.IndexSort;
+
+/**
+ * Split finder that sorts the node's rows by each candidate attribute before scanning
+ */
+public class TreeMatrix extends AbstractTreeMatrix implements SplitFinder {
+    private final boolean[] goesLeft;
+    // The node's rows sorted by the attribute being scored, and the merge sort's buffer.
+    // Each view has its own pair, grown to the largest node it scores: once for the
+    // tree's own finder, and only to the node's size for a fork
+    private int[] sortedRows = new int[0];
+    private int[] sortScratch = new int[0];
+
+    public TreeMatrix(Dataset dataset, int[] weights) {
+        super(dataset, weights);
+        this.goesLeft = new boolean[dataset.getNumSamples()];
+    }
+
+    private TreeMatrix(TreeMatrix parent) {
+        super(parent);
+        this.goesLeft = parent.goesLeft;
+    }
+
+    @Override
+    public SplitFinder fork() {
+        return new TreeMatrix(this);
+    }
+
+    @Override
+    public double computeIGR(int attribute, int start, int end, double parentEntropy) {
+        if (end - start <= 1) return 0.0;
+
+        // Sort a copy of the node's rows by feature value to find best split; the copy
+        // lets several attributes of one node be scored at once (by separate views)
+        FeatureColumn column = columns[attribute];
+        int size = end - start;
+        if (sortedRows.length < size) {
+            sortedRows = new int[size];
+            sortScratch = new int[size];
+        }
+        System.arraycopy(rows, start, sortedRows, 0, size);
+        IndexSort.sort(sortedRows, 0, size, column, sortScratch);
+
+        double bestGainRatio = 0.0;
+        double bestThreshold = 0.0;
+        boolean foundSplit = false;
+
+        int leftSize = 0;
+        int rightSize = beginScan(start, end);
+
+        // Iterate through sorted samples
+        for (int i = 0; i < size - 1; i++) {
+            int idx = sortedRows[i];
+            int label = labels[idx];
+            int weight = weights[idx];
+
+            // Move sample from right to left
+            rightCounts[label] -= weight;
+            rightSize -= weight;
+            leftCounts[label] += weight;
+            leftSize += weight;
+
+            double currentVal = column.get(idx);
+            double nextVal = column.get(sortedRows[i + 1]);
+
+            if (currentVal == nextVal) continue;
+
+            double gainRatio = gainRatio(leftSize, rightSize, parentEntropy);
+
+            if (gainRatio > bestGainRatio) {
+                bestGainRatio = gainRatio;
+                bestThreshold = (currentVal + nextVal) / 2.0;
+                foundSplit = true;
+            }
+        }
+
+        if (foundSplit) {
+            bestThresholds[attribute] = bestThreshold;
+            return bestGainRatio;
+        }
+
+        return 0.0;
+    }
+
+    @Override
+    public int split(int attribute, int start, int end) {
+        double threshold = bestThresholds[attribute];
+        FeatureColumn column = columns[attribute];
+        for (int i = start; i < end; i++) {
+            int row = rows[i];
+            goesLeft[row] = column.get(row) <= threshold;
+        }
+        return partition(rows, start, end, goesLeft);
+    }
+}
@@ -0,0 +1,248 @@
+package heartdisease.server;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parses feature rows from a request body. Accepted shapes:
+ *
+ * JSON: a row as an array of numbers ([1.0, 2.0]), an array of rows ([[...], [...]]),
+ * or an object holding either under "features" or "rows".
+ * CSV: one row per line, comma-separated numbers, no header.
+ *
+ * Throws IllegalArgumentException with a client-facing message on malformed input,
+ * including JSON nested more than MAX_DEPTH levels deep.
+ */
+public class FeatureRowParser {
+    // Deepest JSON nesting accepted; keeps the recursive reader far from stack overflow
+    static final int MAX_DEPTH = 64;
+
+    private final String text;
+    private int position;
+
+    private FeatureRowParser(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Parsed rows, and whether the body held a single row rather than a list of rows
+     */
+    public static class Rows {
+        private final double[][] rows;
+        private final boolean single;
+
+        Rows(double[][] rows, boolean single) {
+            this.rows = rows;
+            this.single = single;
+        }
+
+        public double[][] getRows() {
+            return rows;
+        }
+
+        public boolean isSingle() {
+            return single;
+        }
+    }
+
+    public static Rows parseCsv(String body) {
+        List<double[]> rows = new ArrayList<>();
+        for (String line : body.split("\r?\n")) {
+            if (line.trim().isEmpty()) continue;
+            String[] cells = line.split(",");
+            double[] row = new double[cells.length];
+            for (int i = 0; i < cells.length; i++) {
+                try {
+                    row[i] = Double.parseDouble(cells[i].trim());
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid number in CSV row " + (rows.size() + 1) + ": " + cells[i].trim());
+                }
+            }
+            rows.add(row);
+        }
+        if (rows.isEmpty()) {
+            throw new IllegalArgumentException("No feature rows in request");
+        }
+        return new Rows(rows.toArray(new double[0][]), rows.size() == 1);
+    }
+
+    public static Rows parseJson(String body) {
+        FeatureRowParser parser = new FeatureRowParser(body);
+        Object value = parser.readValue(0);
+        parser.skipWhitespace();
+        if (parser.position != body.length()) {
+            throw parser.error("Unexpected trailing content");
+        }
+        return toRows(value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Rows toRows(Object value) {
+        if (value instanceof List && !((List<Object>) value).isEmpty()) {
+            List<Object> list = (List<Object>) value;
+            if (list.get(0) instanceof List) {
+                double[][] rows = new double[list.size()][];
+                for (int i = 0; i < rows.length; i++) {
+                    rows[i] = toRow(list.get(i));
+                }
+                return new Rows(rows, false);
+            }
+            return new Rows(new double[][]{toRow(list)}, true);
+        }
+        if (value instanceof Map) {
+            Map<String, Object> object = (Map<String, Object>) value;
+            if (object.containsKey("rows")) {
+                Rows rows = toRows(object.get("rows"));
+                return new Rows(rows.getRows(), false);
+            }
+            if (object.containsKey("features")) {
+                return new Rows(new double[][]{toRow(object.get("features"))}, true);
+            }
+        }
+        throw new IllegalArgumentException("Expected a feature row, a list of rows, or an object with \"features\" or \"rows\"");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static double[] toRow(Object value) {
+        if (!(value instanceof List)) {
+            throw new IllegalArgumentException("A feature row must be an array of numbers");
+        }
+        List<Object> values = (List<Object>) value;
+        double[] row = new double[values.size()];
+        for (int i = 0; i < row.length; i++) {
+            if (!(values.get(i) instanceof Double)) {
+                throw new IllegalArgumentException("A feature row must be an array of numbers");
+            }
+            row[i] = (Double) values.get(i);
+        }
+        return row;
+    }
+
+    /**
+     * Minimal JSON reader: objects become maps, arrays lists, numbers doubles
+     */
+    private Object readValue(int depth) {
+        skipWhitespace();
+        if (position >= text.length()) {
+            throw error("Unexpected end of JSON");
+        }
+        char c = text.charAt(position);
+        if ((c == '[' || c == '{') && depth >= MAX_DEPTH) {
+            throw error("JSON nested more than " + MAX_DEPTH + " levels deep");
+        }
+        if (c == '[') {
+            position++;
+            List<Object> list = new ArrayList<>();
+            skipWhitespace();
+            if (peek() == ']') {
+                position++;
+                return list;
+            }
+            while (true) {
+                list.add(readValue(depth + 1));
+                skipWhitespace();
+                char separator = next();
+                if (separator == ']') return list;
+                if (separator != ',') throw error("Expected ',' or ']'");
+            }
+        }
+        if (c == '{') {
+            position++;
+            Map<String, Object> object = new HashMap<>();
+            skipWhitespace();
+            if (peek() == '}') {
+                position++;
+                return object;
+            }
+            while (true) {
+                skipWhitespace();
+                if (peek() != '"') throw error("Expected a field name");
+                String key = readString();
+                skipWhitespace();
+                if (next() != ':') throw error("Expected ':'");
+                object.put(key, readValue(depth + 1));
+                skipWhitespace();
+                char separator = next();
+                if (separator == '}') return object;
+                if (separator != ',') throw error("Expected ',' or '}'");
+            }
+        }
+        if (c == '"') {
+            return readString();
+        }
+        if (text.startsWith("true", position) || text.startsWith("null", position)) {
+            position += 4;
+            return null;
+        }
+        if (text.startsWith("false", position)) {
+            position += 5;
+            return null;
+        }
+        return readNumber();
+    }
+
+    private String readString() {
+        StringBuilder sb = new StringBuilder();
+        position++; // opening quote
+        while (true) {
+            char c = next();
+            if (c == '"') return sb.toString();
+            if (c == '\\') {
+                char escaped = next();
+                switch (escaped) {
+                    case 'n': sb.append('\n'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'u':
+                        if (position + 4 > text.length()) throw error("Invalid escape");
+                        sb.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                        position += 4;
+                        break;
+                    default: sb.append(escaped);
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+    }
+
+    private Double readNumber() {
+        int start = position;
+        while (position < text.length() && "+-0123456789.eE".indexOf(text.charAt(position)) >= 0) {
+            position++;
+        }
+        if (start == position) {
+            throw error("Unexpected character '" + text.charAt(position) + "'");
+        }
+        try {
+            return Double.parseDouble(text.substring(start, position));
+        } catch (NumberFormatException e) {
+            throw error("Invalid number " + text.substring(start, position));
+        }
+    }
+
+    private void skipWhitespace() {
+        while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+            position++;
+        }
+    }
+
+    private char peek() {
+        return position < text.length() ? text.charAt(position) : '\0';
+    }
+
+    private char next() {
+        if (position >= text.length()) {
+            throw error("Unexpected end of JSON");
+        }
+        return text.charAt(position++);
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + position);
+    }
+}
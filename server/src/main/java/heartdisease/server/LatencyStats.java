@@ -0,0 +1,51 @@
+package heartdisease.server;
+
+import java.util.Arrays;
+
+/**
+ * Request latencies over a sliding window of the most recent requests, with
+ * percentiles computed on demand
+ */
+public class LatencyStats {
+    private final long[] window;
+    private long count;
+
+    public LatencyStats(int windowSize) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("Window size must be at least 1");
+        }
+        this.window = new long[windowSize];
+    }
+
+    public synchronized void record(long nanos) {
+        window[(int) (count % window.length)] = nanos;
+        count++;
+    }
+
+    /**
+     * Total number of requests recorded, including those that left the window
+     */
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * Latencies in the window at the given percentiles (0-100), in milliseconds
+     */
+    public double[] percentilesMillis(double... percentiles) {
+        long[] sorted;
+        synchronized (this) {
+            sorted = Arrays.copyOf(window, (int) Math.min(count, window.length));
+        }
+        Arrays.sort(sorted);
+        double[] result = new double[percentiles.length];
+        if (sorted.length == 0) {
+            return result;
+        }
+        for (int i = 0; i < percentiles.length; i++) {
+            int rank = (int) Math.ceil(percentiles[i] / 100.0 * sorted.length) - 1;
+            result[i] = sorted[Math.max(0, Math.min(rank, sorted.length - 1))] / 1e6;
+        }
+        return result;
+    }
+}
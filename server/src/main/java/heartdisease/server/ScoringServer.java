@@ -0,0 +1,271 @@
+package heartdisease.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import heartdisease.forest.PredictionCoalescer;
+import heartdisease.forest.RandomForest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Small HTTP prediction server for a saved RandomForest, on the JDK's built-in
+ * com.sun.net.httpserver.
+ *
+ * Endpoints:
+ *   POST /predict  one or more feature rows as JSON (application/json) or CSV (text/csv);
+ *                  answers the class and Laplace-smoothed probability of every row
+ *   GET  /stats    request count and latency percentiles over recent requests
+ *   GET  /health   model summary
+ *
+ * Request bodies over MAX_BODY_BYTES are refused with 413 before parsing.
+ * Requests run on a bounded thread pool; when its queue is full the accepting thread
+ * handles the request itself, which slows accepting down instead of dropping work.
+ * All rows of a request are scored with one tree-major predictBatch call. With a batch
+ * window, rows of concurrent requests are coalesced into shared predictBatch calls by a
+ * PredictionCoalescer, and responses are sent when the batch completes, so pool threads
+ * are not held while requests wait.
+ */
+public class ScoringServer {
+    private static final int DEFAULT_PORT = 8080;
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final int LATENCY_WINDOW = 10000;
+    private static final long DEFAULT_BATCH_WINDOW_MICROS = 200;
+    private static final int MAX_BATCH_ROWS = 1024;
+    private static final int MAX_BODY_BYTES = 8 << 20;
+
+    private final RandomForest forest;
+    private final int numFeatures;
+    private final HttpServer server;
+    private final ThreadPoolExecutor executor;
+    private final LatencyStats latencies;
+    private final PredictionCoalescer coalescer;
+
+    /**
+     * @param batchWindowMicros how long to gather concurrent requests into one batch;
+     *                          0 scores every request on its own
+     */
+    public ScoringServer(RandomForest forest, int port, int threads, long batchWindowMicros) throws IOException {
+        if (forest.getFeatureNames() == null) {
+            throw new IllegalArgumentException("Forest must be fitted or loaded before serving");
+        }
+        this.forest = forest;
+        this.numFeatures = forest.getFeatureNames().length;
+        this.latencies = new LatencyStats(LATENCY_WINDOW);
+        this.executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(QUEUE_CAPACITY), new ThreadPoolExecutor.CallerRunsPolicy());
+        this.coalescer = batchWindowMicros > 0
+            ? new PredictionCoalescer(forest, batchWindowMicros, MAX_BATCH_ROWS)
+            : null;
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.setExecutor(executor);
+        server.createContext("/predict", this::handlePredict);
+        server.createContext("/stats", this::handleStats);
+        server.createContext("/health", this::handleHealth);
+    }
+
+    public ScoringServer(RandomForest forest, int port, int threads) throws IOException {
+        this(forest, port, threads, 0);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stop accepting requests, give in-flight ones up to delaySeconds, and release the pool.
+     * Requests still in the coalescer are scored and answered before the pool shuts down.
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(delaySeconds);
+        try {
+            if (coalescer != null) {
+                coalescer.close();
+                coalescer.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            }
+            executor.shutdown();
+            executor.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            executor.shutdown();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public LatencyStats getLatencies() {
+        return latencies;
+    }
+
+    private void handlePredict(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            sendJson(exchange, 405, "{\"error\":\"Use POST\"}");
+            latencies.record(System.nanoTime() - start);
+            return;
+        }
+        String body = readBody(exchange);
+        if (body == null) {
+            // The rest of the body is not read, so the connection cannot be reused
+            exchange.getResponseHeaders().set("Connection", "close");
+            sendJson(exchange, 413, "{\"error\":\"Request body exceeds " + MAX_BODY_BYTES + " bytes\"}");
+            latencies.record(System.nanoTime() - start);
+            return;
+        }
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        FeatureRowParser.Rows rows;
+        try {
+            rows = contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith("text/csv")
+                ? FeatureRowParser.parseCsv(body)
+                : FeatureRowParser.parseJson(body);
+            for (double[] row : rows.getRows()) {
+                if (row.length != numFeatures) {
+                    throw new IllegalArgumentException(
+                        "Expected " + numFeatures + " features per row, got " + row.length);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            sendJson(exchange, 400, "{\"error\":\"" + escapeJson(e.getMessage()) + "\"}");
+            latencies.record(System.nanoTime() - start);
+            return;
+        }
+
+        if (coalescer == null) {
+            try {
+                sendJson(exchange, 200, formatPredictions(forest.predictBatch(rows.getRows()), rows.isSingle()));
+            } finally {
+                latencies.record(System.nanoTime() - start);
+            }
+            return;
+        }
+
+        // Respond from the pool once the shared batch is scored; the exchange stays open until then
+        CompletableFuture<RandomForest.BatchPrediction> scores = coalescer.submit(rows.getRows());
+        scores.whenCompleteAsync((result, error) -> {
+            try {
+                if (error != null) {
+                    sendJson(exchange, 500, "{\"error\":\"" + escapeJson(String.valueOf(error.getMessage())) + "\"}");
+                } else {
+                    sendJson(exchange, 200, formatPredictions(result, rows.isSingle()));
+                }
+            } catch (IOException e) {
+                exchange.close();
+            } finally {
+                latencies.record(System.nanoTime() - start);
+            }
+        }, executor);
+    }
+
+    private static String formatPredictions(RandomForest.BatchPrediction scores, boolean single) {
+        int[] classes = scores.getPredictions();
+        double[] probabilities = scores.getProbabilities();
+        StringBuilder sb = new StringBuilder();
+        if (!single) sb.append("{\"predictions\":[");
+        for (int i = 0; i < classes.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append("{\"class\":").append(classes[i])
+              .append(",\"probability\":").append(probabilities[i]).append('}');
+        }
+        if (!single) sb.append("]}");
+        return sb.toString();
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        double[] p = latencies.percentilesMillis(50, 90, 99, 100);
+        String json = String.format(Locale.ROOT,
+            "{\"requests\":%d,\"latencyMs\":{\"p50\":%.3f,\"p90\":%.3f,\"p99\":%.3f,\"max\":%.3f}}",
+            latencies.getCount(), p[0], p[1], p[2], p[3]);
+        sendJson(exchange, 200, json);
+    }
+
+    private void handleHealth(HttpExchange exchange) throws IOException {
+        String json = String.format(Locale.ROOT, "{\"status\":\"ok\",\"trees\":%d,\"features\":%d}",
+            forest.getTrees().size(), numFeatures);
+        sendJson(exchange, 200, json);
+    }
+
+    /**
+     * The request body, or null if it is longer than MAX_BODY_BYTES
+     */
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            if (declaredLength(exchange) > MAX_BODY_BYTES) {
+                return null;
+            }
+            // Chunked bodies declare no length: read one byte past the limit to detect them
+            byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+            return bytes.length > MAX_BODY_BYTES ? null : new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Content-Length of the request, or -1 if absent or not a number
+     */
+    private static long declaredLength(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (header == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String escapeJson(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Usage: ScoringServer model.rfm [port] [threads] [batchWindowMicros]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: java -jar heart-disease-server.jar <model.rfm> [port] [threads] [batchWindowMicros]");
+            System.exit(1);
+        }
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PORT;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        long batchWindowMicros = args.length > 3 ? Long.parseLong(args[3]) : DEFAULT_BATCH_WINDOW_MICROS;
+
+        long start = System.nanoTime();
+        RandomForest forest = RandomForest.load(Paths.get(args[0]));
+        ScoringServer server = new ScoringServer(forest, port, threads, batchWindowMicros);
+        server.start();
+        System.out.printf(Locale.ROOT, "Loaded %d trees in %.1f ms; serving on port %d with %d threads, batch window %d us%n",
+            forest.getTrees().size(), (System.nanoTime() - start) / 1e6, server.getPort(), threads, batchWindowMicros);
+    }
+}